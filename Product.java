@@ -1,29 +0,0 @@
-public class Product {
-    private String name;
-    private String category;
-    private double price;
-    private int stockQuantity;
-
-    // Constructor
-    public Product(String name, String category, double price, int stockQuantity) {
-        this.name = name;
-        this.category = category;
-        this.price = price;
-        this.stockQuantity = stockQuantity;
-    }
-
-    // Getters
-    public String getName() {
-        return name;
-    }
-    public String getCategory() {
-        return category;
-    }
-    public double getPrice() {
-        return price;
-    }
-    public int getStockQuantity() {
-        return stockQuantity;
-    }
-}
-
@@ -0,0 +1,74 @@
+package com.pawsshop.benchmarks;
+
+import com.pawsshop.BinaryCatalogFile;
+import com.pawsshop.ProductCatalog;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Generates a catalog of the requested size in a temporary directory, the same way for every run,
+// so results from different commits can be compared.
+final class CatalogFixture {
+    static final String[] CATEGORIES = {"Food", "Pet Toys", "Harnesses", "Cages", "Grooming Products", "Collars"};
+    private static final String[] ADJECTIVES = {"Deluxe", "Classic", "Soft", "Large", "Small", "Organic", "Travel", "Squeaky", "Leather", "Reflective"};
+    private static final String[] NOUNS = {"Chew Toy", "Ball", "Harness", "Cage", "Brush", "Collar", "Leash", "Bed", "Shampoo", "Kibble", "Treats", "Bowl"};
+
+    final Path directory;
+    final File csvFile;
+    final File binaryFile;
+    final String[] names;
+    final String[] categories;
+
+    private CatalogFixture(Path directory, int size) {
+        this.directory = directory;
+        this.csvFile = directory.resolve("product_data.txt").toFile();
+        this.binaryFile = directory.resolve("product_data.bin").toFile();
+        this.names = new String[size];
+        this.categories = new String[size];
+    }
+
+    // Writes product_data.txt (and product_data.bin if asked) with the given number of SKUs
+    static CatalogFixture create(int size, boolean withBinary) throws IOException {
+        CatalogFixture fixture = new CatalogFixture(Files.createTempDirectory("paws-bench"), size);
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(fixture.csvFile.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < size; i++) {
+                String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + i;
+                String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                fixture.names[i] = name;
+                fixture.categories[i] = category;
+                writer.write(name + "," + category + "," + (100 + random.nextInt(9900)) / 100.0 + "," + 1_000_000);
+                writer.newLine();
+            }
+        }
+        if (withBinary) {
+            BinaryCatalogFile.write(fixture.binaryFile, fixture.loadCsv().getProducts());
+        }
+        return fixture;
+    }
+
+    ProductCatalog loadCsv() {
+        ProductCatalog catalog = new ProductCatalog(csvFile);
+        catalog.load();
+        return catalog;
+    }
+
+    ProductCatalog loadBinary() {
+        ProductCatalog catalog = new ProductCatalog(binaryFile);
+        catalog.load();
+        return catalog;
+    }
+
+    void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.pawsshop.benchmarks;
+
+import com.pawsshop.CatalogCsvLoader;
+import com.pawsshop.ProductCatalog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// loadProductData: building the catalog from product_data.txt and from product_data.bin
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogLoadBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private CatalogFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = CatalogFixture.create(size, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixture.delete();
+    }
+
+    @Benchmark
+    public ProductCatalog loadCsv() {
+        return fixture.loadCsv();
+    }
+
+    @Benchmark
+    public ProductCatalog loadBinary() {
+        return fixture.loadBinary();
+    }
+
+    // Parsing only, without building the catalog indexes
+    @Benchmark
+    public CatalogCsvLoader.Result parseCsv() throws IOException {
+        return new CatalogCsvLoader().load(fixture.csvFile);
+    }
+}
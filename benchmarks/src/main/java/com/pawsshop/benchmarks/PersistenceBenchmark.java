@@ -0,0 +1,80 @@
+package com.pawsshop.benchmarks;
+
+import com.pawsshop.Cart;
+import com.pawsshop.CheckoutResult;
+import com.pawsshop.InventoryService;
+import com.pawsshop.ProductCatalog;
+import com.pawsshop.TransactionJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Writes to disk: a complete checkout (stock journal plus transaction journal), the stock update
+// alone (saveProductData), a restock (saveSupplyToFile) and a full snapshot compaction
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+    private static final int CART_LINES = 3;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private CatalogFixture fixture;
+    private ProductCatalog catalog;
+    private TransactionJournal transactionJournal;
+    private InventoryService inventory;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = CatalogFixture.create(size, false);
+        catalog = fixture.loadCsv();
+        transactionJournal = new TransactionJournal(fixture.directory.resolve("transaction_journal.dat").toFile(), 0);
+        inventory = new InventoryService(catalog, transactionJournal);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixture.delete();
+    }
+
+    private Cart nextCart() {
+        Cart cart = new Cart();
+        for (int line = 0; line < CART_LINES; line++) {
+            cart.add(catalog.getProduct(Math.floorMod(next++ * 7919, size)), 1);
+        }
+        return cart;
+    }
+
+    // Complete button: stock taken out and journalled, then the sale is group-committed
+    @Benchmark
+    public long completeTransaction() throws IOException {
+        Cart cart = nextCart();
+        if (!inventory.sell(cart).isSuccess()) {
+            throw new IllegalStateException("Benchmark catalog ran out of stock");
+        }
+        return inventory.recordSale(cart, "benchmark").getTransactionId();
+    }
+
+    @Benchmark
+    public CheckoutResult saveProductData() throws IOException {
+        return inventory.sell(nextCart());
+    }
+
+    @Benchmark
+    public boolean saveSupplyToFile() throws IOException {
+        int i = Math.floorMod(next++ * 7919, size);
+        return inventory.restock(fixture.names[i], fixture.categories[i], 999, 1);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void compactSnapshot() throws IOException {
+        catalog.compact();
+    }
+}
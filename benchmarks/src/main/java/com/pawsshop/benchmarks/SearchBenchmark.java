@@ -0,0 +1,63 @@
+package com.pawsshop.benchmarks;
+
+import com.pawsshop.InventoryService;
+import com.pawsshop.Product;
+import com.pawsshop.ProductCatalog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// The search window's filter (updateTableData) and the primary key lookup (getProductByName)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+    // Queries that do not contain each other, so the index cannot narrow the previous result
+    private static final String[] QUERIES = {"squeaky ball", "leather collar", "travel cage", "soft bed", "organic kibble"};
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private CatalogFixture fixture;
+    private ProductCatalog catalog;
+    private InventoryService inventory;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = CatalogFixture.create(size, false);
+        catalog = fixture.loadCsv();
+        inventory = new InventoryService(catalog, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixture.delete();
+    }
+
+    @Benchmark
+    public int[] searchByName() {
+        return inventory.search(QUERIES[next++ % QUERIES.length], "All");
+    }
+
+    @Benchmark
+    public int[] searchByNameAndCategory() {
+        return inventory.search(QUERIES[next++ % QUERIES.length], "Collars");
+    }
+
+    // One or two letters have no trigram, every name is checked
+    @Benchmark
+    public int[] searchShortQuery() {
+        return inventory.search(next++ % 2 == 0 ? "ba" : "co", "All");
+    }
+
+    @Benchmark
+    public Product lookupBySku() {
+        int i = Math.floorMod(next++ * 7919, size);
+        return inventory.lookup(fixture.names[i], fixture.categories[i]);
+    }
+}
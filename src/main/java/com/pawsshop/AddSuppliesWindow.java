@@ -1,10 +1,12 @@
+package com.pawsshop;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
 
 public class AddSuppliesWindow extends JFrame {
     private static final Color PRIMARY_COLOR = new Color(70, 130, 180); // Steel Blue
@@ -12,7 +14,8 @@ public class AddSuppliesWindow extends JFrame {
     private static final Font LABEL_FONT = new Font("Arial", Font.PLAIN, 16);
     private static final Font BUTTON_FONT = new Font("Arial", Font.BOLD, 18); // Larger font for buttons
 
-    private static final String FILE_PATH = "product_data.txt"; // Change to the correct file path
+    // Categories of the catalog; a new one can be typed in and appears in every dropdown once saved
+    private final CategoryComboBoxModel categoryModel = new CategoryComboBoxModel(ProductCatalog.getInstance().getCategoryRegistry());
 
     public AddSuppliesWindow() {
         setTitle("Add New Pet Supplies");
@@ -40,7 +43,8 @@ public class AddSuppliesWindow extends JFrame {
         categoryLabel.setForeground(PRIMARY_COLOR);
         panel.add(categoryLabel);
 
-        JComboBox<String> categoryDropdown = new JComboBox<>(new String[]{"Food", "Pet Toys", "Harnesses", "Cages", "Grooming Products"});
+        JComboBox<String> categoryDropdown = new JComboBox<>(categoryModel);
+        categoryDropdown.setEditable(true);
         panel.add(categoryDropdown);
 
         JLabel priceLabel = new JLabel("Price:");
@@ -92,18 +96,32 @@ public class AddSuppliesWindow extends JFrame {
         backButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
         panel.add(backButton);
 
+// Import Button
+        JButton importButton = new JButton("Import File");
+        importButton.setFont(BUTTON_FONT);
+        importButton.setBackground(PRIMARY_COLOR); // Set to Submit button color
+        importButton.setForeground(Color.WHITE);
+        importButton.setFocusPainted(false);
+        importButton.setBorderPainted(false);
+        importButton.setOpaque(true);
+        importButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        panel.add(importButton);
+
 
         // Action listeners for buttons
         submitButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
                 String name = nameField.getText();
-                String category = (String) categoryDropdown.getSelectedItem();
+                Object selectedCategory = categoryDropdown.getSelectedItem();
+                String category = selectedCategory == null ? "" : selectedCategory.toString();
                 String price = priceField.getText();
                 String quantity = quantityField.getText();
 
-                // Save the supply details to the product_data.txt file
-                saveSupplyToFile(name, category, price, quantity);
+                // Save the supply details to the catalog and product_data.txt
+                if (!saveSupplyToFile(name, category, price, quantity)) {
+                    return;
+                }
 
                 // Show confirmation message
                 JOptionPane.showMessageDialog(null, "Pet Supply Added/Updated Successfully!");
@@ -117,6 +135,9 @@ public class AddSuppliesWindow extends JFrame {
             quantityField.setText("");
         });
 
+        // Bulk import of a supplier delivery file
+        importButton.addActionListener(e -> importDeliveryFile());
+
         // Back Button Action Listener
         backButton.addActionListener(e -> {
             // Open the Dashboard window and dispose the current window
@@ -128,67 +149,74 @@ public class AddSuppliesWindow extends JFrame {
         add(panel, BorderLayout.CENTER);
     }
 
-    // Method to save or update the supply details in the file
-    private void saveSupplyToFile(String name, String category, String price, String quantity) {
+    // Method to save or update the supply details in the shared catalog
+    private boolean saveSupplyToFile(String name, String category, String price, String quantity) {
+        long parsedPriceCents;
+        int parsedQuantity;
         try {
-            // Read the existing file into a list to check for duplicates
-            File file = new File(FILE_PATH);
-            List<String> lines = new ArrayList<>();
-            boolean productExists = false;
-            String updatedRecord = name + "," + category + "," + price + "," + quantity;
-
-            if (file.exists()) {
-                BufferedReader reader = new BufferedReader(new FileReader(file));
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    // Split the line into parts
-                    String[] parts = line.split(",");
-
-                    // Ensure that the line has exactly 4 elements
-                    if (parts.length == 4) {
-                        String productName = parts[0];
-                        String productCategory = parts[1];
-                        String productPrice = parts[2];
-                        String productQuantity = parts[3];
-
-                        // Check if the product already exists
-                        if (productName.equals(name) && productCategory.equals(category)) {
-                            // Update the quantity if the product already exists
-                            int existingQuantity = Integer.parseInt(productQuantity);
-                            int newQuantity = existingQuantity + Integer.parseInt(quantity);
-                            updatedRecord = name + "," + category + "," + price + "," + newQuantity;
-                            productExists = true;
-                        } else {
-                            lines.add(line); // Add the old line if it's a valid product
-                        }
-                    } else {
-                        // Log or handle any invalid line here if necessary (optional)
-                        System.out.println("Skipping invalid line: " + line);
-                    }
-                }
-                reader.close();
-            }
-
-            // Add the new or updated record
-            lines.add(updatedRecord);
+            parsedPriceCents = Money.parse(price);
+            parsedQuantity = Integer.parseInt(quantity.trim());
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "Please enter a valid price and quantity.", "Error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
 
-            // Write the updated content back to the file
-            BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH));
-            for (String line : lines) {
-                writer.write(line);
-                writer.newLine();
-            }
-            writer.close();
+        try {
+            // Update the product if (name, category) already exists, otherwise add it.
+            // Only the changed product is appended to the stock journal.
+            boolean productExists = InventoryService.getInstance().restock(name, category, parsedPriceCents, parsedQuantity);
 
             // Show confirmation message
             String message = productExists ? "Product Quantity Updated Successfully!" : "Pet Supply Added Successfully!";
             JOptionPane.showMessageDialog(this, message);
+            return true;
 
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return false;
         } catch (IOException e) {
             JOptionPane.showMessageDialog(this, "Error saving to file: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return false;
         }
     }
 
+    // Imports a name,category,price,quantity delivery file in the background and shows the report
+    private void importDeliveryFile() {
+        JFileChooser chooser = new JFileChooser(new File("."));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File deliveryFile = chooser.getSelectedFile();
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<SupplyImport.Report, Void>() {
+            @Override
+            protected SupplyImport.Report doInBackground() throws Exception {
+                return new SupplyImport(ProductCatalog.getInstance()).importFile(deliveryFile);
+            }
+
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    JTextArea reportArea = new JTextArea(get().format(), 20, 70);
+                    reportArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+                    reportArea.setEditable(false);
+                    JOptionPane.showMessageDialog(AddSuppliesWindow.this, new JScrollPane(reportArea), "Import Report", JOptionPane.PLAIN_MESSAGE);
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(AddSuppliesWindow.this, "Error importing file: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    @Override
+    public void dispose() {
+        categoryModel.detach();
+        super.dispose();
+    }
+
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> {
             new AddSuppliesWindow().setVisible(true);
@@ -0,0 +1,176 @@
+package com.pawsshop;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Versioned binary snapshot of the catalog (product_data.bin), read through a memory-mapped file.
+//
+// Layout (big-endian):
+//   header   int magic "PAWS", int version, int product count, int heap size
+//   columns  long priceCents[count], int stock[count], int nameOffset[count], int categoryOffset[count]
+//   heap     strings stored once each as int byte length + UTF-8 bytes, offsets are relative to the heap start
+//
+// Numbers never have to be parsed and names may contain commas. Run main() to convert to and from product_data.txt.
+// Version 1 files stored the price as a double in dollars; they are still read and rewritten as version 2 on the next compaction.
+public class BinaryCatalogFile {
+    private static final int MAGIC = 0x50415753; // "PAWS"
+    private static final int VERSION = 2;
+    private static final int VERSION_DOUBLE_PRICES = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int COLUMN_BYTES_PER_PRODUCT = 8 + 4 + 4 + 4;
+
+    public static boolean isBinaryCatalog(File file) {
+        return file.getName().endsWith(".bin");
+    }
+
+    public static List<Product> read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException("Catalog file is too short: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a Paws Shop catalog file: " + file);
+            }
+            int version = buffer.getInt(4);
+            if (version != VERSION && version != VERSION_DOUBLE_PRICES) {
+                throw new IOException("Unsupported catalog file version " + version + ": " + file);
+            }
+            int count = buffer.getInt(8);
+            int heapSize = buffer.getInt(12);
+            long heapStart = HEADER_BYTES + (long) count * COLUMN_BYTES_PER_PRODUCT;
+            if (count < 0 || heapSize < 0 || heapStart + heapSize != fileSize) {
+                throw new IOException("Corrupt catalog file: " + file);
+            }
+
+            int priceColumn = HEADER_BYTES;
+            int stockColumn = priceColumn + count * 8;
+            int nameColumn = stockColumn + count * 4;
+            int categoryColumn = nameColumn + count * 4;
+
+            // Categories repeat on almost every product, decode each of them only once
+            Map<Integer, Integer> categoryIds = new HashMap<>(); // Heap offset -> CategoryDictionary id
+            List<Product> products = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long priceCents = version == VERSION
+                        ? buffer.getLong(priceColumn + i * 8)
+                        : Math.round(buffer.getDouble(priceColumn + i * 8) * 100);
+                int stock = buffer.getInt(stockColumn + i * 4);
+                String name = readString(buffer, (int) heapStart, buffer.getInt(nameColumn + i * 4));
+                int categoryOffset = buffer.getInt(categoryColumn + i * 4);
+                Integer categoryId = categoryIds.get(categoryOffset);
+                if (categoryId == null) {
+                    categoryId = CategoryDictionary.intern(readString(buffer, (int) heapStart, categoryOffset));
+                    categoryIds.put(categoryOffset, categoryId);
+                }
+                products.add(new Product(name, categoryId, priceCents, stock));
+            }
+            return products;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt catalog file: " + file, e);
+        }
+    }
+
+    // Writes the products to a temporary file and moves it over the target in one step
+    public static void write(File file, List<Product> products) throws IOException {
+        int count = products.size();
+        int[] nameOffsets = new int[count];
+        int[] categoryOffsets = new int[count];
+
+        // Build the string heap first so the offset columns can be written before it
+        ByteArrayOutputStream heapBytes = new ByteArrayOutputStream();
+        DataOutputStream heap = new DataOutputStream(heapBytes);
+        Map<String, Integer> stringOffsets = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            Product product = products.get(i);
+            nameOffsets[i] = writeString(heap, heapBytes, stringOffsets, product.getName());
+            categoryOffsets[i] = writeString(heap, heapBytes, stringOffsets, product.getCategory());
+        }
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            out.writeInt(heapBytes.size());
+            for (Product product : products) {
+                out.writeLong(product.getPriceCents());
+            }
+            for (Product product : products) {
+                out.writeInt(product.getStockQuantity());
+            }
+            for (int offset : nameOffsets) {
+                out.writeInt(offset);
+            }
+            for (int offset : categoryOffsets) {
+                out.writeInt(offset);
+            }
+            heapBytes.writeTo(out);
+            out.flush();
+            fileOut.getFD().sync();
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String readString(MappedByteBuffer buffer, int heapStart, int offset) {
+        int position = heapStart + offset;
+        int length = buffer.getInt(position);
+        byte[] bytes = new byte[length];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int writeString(DataOutputStream heap, ByteArrayOutputStream heapBytes,
+                                   Map<String, Integer> stringOffsets, String value) throws IOException {
+        Integer existing = stringOffsets.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        int offset = heapBytes.size();
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        heap.writeInt(bytes.length);
+        heap.write(bytes);
+        stringOffsets.put(value, offset);
+        return offset;
+    }
+
+    // Migration tool:
+    //   java com.pawsshop.BinaryCatalogFile import product_data.txt product_data.bin
+    //   java com.pawsshop.BinaryCatalogFile export product_data.bin product_data.txt
+    // The source is loaded through ProductCatalog, so pending journal records are included.
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !(args[0].equals("import") || args[0].equals("export"))) {
+            System.out.println("Usage: java com.pawsshop.BinaryCatalogFile import <product_data.txt> <product_data.bin>");
+            System.out.println("       java com.pawsshop.BinaryCatalogFile export <product_data.bin> <product_data.txt>");
+            return;
+        }
+        File source = new File(args[1]);
+        File target = new File(args[2]);
+
+        ProductCatalog catalog = new ProductCatalog(source);
+        catalog.load();
+        if (catalog.getLoadError() != null) {
+            throw catalog.getLoadError();
+        }
+        List<Product> products = catalog.getProducts();
+
+        if (args[0].equals("import")) {
+            write(target, products);
+        } else {
+            ProductCatalog.writeCsv(target, products);
+        }
+        System.out.println("Converted " + products.size() + " products from " + source + " to " + target);
+    }
+}
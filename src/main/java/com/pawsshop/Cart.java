@@ -0,0 +1,102 @@
+package com.pawsshop;
+
+import java.util.*;
+
+// Shopping cart holding one line per product with a quantity, instead of one entry per unit
+public class Cart {
+
+    public static class Line {
+        private final Product product;
+        private final long unitPriceCents; // Price in cents when the product was first added to the cart
+        private int quantity;
+
+        Line(Product product, long unitPriceCents) {
+            this.product = product;
+            this.unitPriceCents = unitPriceCents;
+        }
+
+        public Product getProduct() {
+            return product;
+        }
+
+        public long getUnitPriceCents() {
+            return unitPriceCents;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public long getLineTotalCents() {
+            return unitPriceCents * quantity;
+        }
+
+        @Override
+        public String toString() {
+            return product.getName() + " x" + quantity + " - " + Money.formatWithSymbol(getLineTotalCents());
+        }
+    }
+
+    private final List<Line> lines = new ArrayList<>();
+    private final Map<Product, Line> linesByProduct = new HashMap<>();
+    private long totalCents; // Kept up to date on every change, so reading the total costs nothing
+
+    // Adds units of a product, merging them into the existing line for that product. Returns the line.
+    public Line add(Product product, int quantity) {
+        long started = System.nanoTime();
+        Line line = linesByProduct.get(product);
+        if (line == null) {
+            line = new Line(product, product.getPriceCents());
+            lines.add(line);
+            linesByProduct.put(product, line);
+        }
+        line.quantity += quantity;
+        totalCents += line.unitPriceCents * quantity;
+        Metrics.CART_ADD.recordSince(started);
+        return line;
+    }
+
+    // Removes one unit from the line at the given index. Returns true if the whole line went away.
+    public boolean removeOne(int lineIndex) {
+        Line line = lines.get(lineIndex);
+        line.quantity--;
+        totalCents -= line.unitPriceCents;
+        if (line.quantity == 0) {
+            lines.remove(lineIndex);
+            linesByProduct.remove(line.product);
+            return true;
+        }
+        return false;
+    }
+
+    public List<Line> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+
+    public int indexOf(Line line) {
+        return lines.indexOf(line);
+    }
+
+    // Units to take out of stock per product, one entry per SKU
+    public Map<Product, Integer> getQuantities() {
+        Map<Product, Integer> quantities = new LinkedHashMap<>();
+        for (Line line : lines) {
+            quantities.put(line.product, line.quantity);
+        }
+        return quantities;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    public void clear() {
+        lines.clear();
+        linesByProduct.clear();
+        totalCents = 0;
+    }
+}
@@ -0,0 +1,299 @@
+package com.pawsshop;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Parallel loader for product_data.txt. The file is memory-mapped and cut into one chunk per core
+// at newline boundaries. Every chunk is parsed straight from the mapped bytes (no readLine, split
+// or regex) and the chunks are concatenated in file order, so the result does not depend on
+// which thread finished first.
+public class CatalogCsvLoader {
+    private static final long MAX_CHUNK_BYTES = 1L << 30; // A single mapping must stay below 2 GB
+    private static final long INVALID_AMOUNT = Long.MIN_VALUE;
+
+    // A line that could not be parsed, with the byte offset where it starts in the file
+    public static class MalformedLine {
+        private final long offset;
+        private final String text;
+
+        MalformedLine(long offset, String text) {
+            this.offset = offset;
+            this.text = text;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public String toString() {
+            return "byte " + offset + ": " + text;
+        }
+    }
+
+    public static class Result {
+        private final List<Product> products;
+        private final List<MalformedLine> malformedLines;
+
+        Result(List<Product> products, List<MalformedLine> malformedLines) {
+            this.products = products;
+            this.malformedLines = malformedLines;
+        }
+
+        // Products in file order
+        public List<Product> getProducts() {
+            return products;
+        }
+
+        public List<MalformedLine> getMalformedLines() {
+            return malformedLines;
+        }
+    }
+
+    private final int parallelism;
+
+    public CatalogCsvLoader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public CatalogCsvLoader(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public Result load(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long[] boundaries = chunkBoundaries(channel);
+            List<Result> chunks;
+            try {
+                chunks = IntStream.range(0, boundaries.length - 1)
+                        .parallel()
+                        .mapToObj(i -> parseChunk(channel, boundaries[i], boundaries[i + 1]))
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            List<Product> products = new ArrayList<>();
+            List<MalformedLine> malformedLines = new ArrayList<>();
+            for (Result chunk : chunks) {
+                products.addAll(chunk.products);
+                malformedLines.addAll(chunk.malformedLines);
+            }
+            return new Result(products, Collections.unmodifiableList(malformedLines));
+        }
+    }
+
+    // Chunk start offsets plus the file size; every chunk after the first starts right after a newline
+    private long[] chunkBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int chunkCount = (int) Math.max(parallelism, (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        for (int i = 1; i < chunkCount; i++) {
+            long boundary = nextLineStart(channel, size, size / chunkCount * i);
+            if (boundary > boundaries.get(boundaries.size() - 1) && boundary < size) {
+                boundaries.add(boundary);
+            }
+        }
+        boundaries.add(size);
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long nextLineStart(FileChannel channel, long size, long from) throws IOException {
+        long position = from;
+        while (position < size) {
+            int window = (int) Math.min(64 * 1024, size - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, window);
+            for (int i = 0; i < window; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += window;
+        }
+        return size;
+    }
+
+    private static Result parseChunk(FileChannel channel, long start, long end) {
+        List<Product> products = new ArrayList<>();
+        List<MalformedLine> malformedLines = new ArrayList<>();
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            int length = (int) (end - start);
+            byte[] line = new byte[256];
+            int lineStart = 0;
+            while (lineStart < length) {
+                int lineEnd = lineStart;
+                while (lineEnd < length && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int lineLength = lineEnd - lineStart;
+                if (lineLength > line.length) {
+                    line = new byte[Math.max(lineLength, line.length * 2)];
+                }
+                buffer.get(lineStart, line, 0, lineLength);
+
+                Product product = parseLine(line, lineLength);
+                if (product != null) {
+                    products.add(product);
+                } else if (!isBlank(line, lineLength)) {
+                    malformedLines.add(new MalformedLine(start + lineStart, new String(line, 0, lineLength, StandardCharsets.UTF_8).trim()));
+                }
+                lineStart = lineEnd + 1;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Result(products, malformedLines);
+    }
+
+    // name,category,price,stock with the fields taken from the right, so commas inside the name are kept
+    static Product parseLine(byte[] line, int length) {
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        int stockComma = lastIndexOf(line, ',', length - 1);
+        int priceComma = lastIndexOf(line, ',', stockComma - 1);
+        int categoryComma = lastIndexOf(line, ',', priceComma - 1);
+        if (categoryComma <= 0) {
+            return null;
+        }
+        String name = decodeTrimmed(line, 0, categoryComma);
+        int categoryStart = categoryComma + 1;
+        int categoryEnd = priceComma;
+        while (categoryStart < categoryEnd && isTrimmed(line[categoryStart])) {
+            categoryStart++;
+        }
+        while (categoryEnd > categoryStart && isTrimmed(line[categoryEnd - 1])) {
+            categoryEnd--;
+        }
+        long priceCents = parseCents(line, priceComma + 1, stockComma);
+        // Negative stock (oversold before the ledger existed) is loaded as it always was
+        long stock = parseStock(line, stockComma + 1, length);
+        if (name.isEmpty() || categoryStart == categoryEnd || priceCents == INVALID_AMOUNT
+                || stock < Integer.MIN_VALUE || stock > Integer.MAX_VALUE) {
+            return null;
+        }
+        // Categories repeat on almost every line, known ones are looked up without decoding them
+        return new Product(name, CategoryDictionary.intern(line, categoryStart, categoryEnd), priceCents, (int) stock);
+    }
+
+    private static int lastIndexOf(byte[] bytes, char c, int from) {
+        for (int i = from; i >= 0; i--) {
+            if (bytes[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String decodeTrimmed(byte[] bytes, int start, int end) {
+        while (start < end && isTrimmed(bytes[start])) {
+            start++;
+        }
+        while (end > start && isTrimmed(bytes[end - 1])) {
+            end--;
+        }
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    // Plain amount such as 12.5 or -3 straight into cents. Anything else (more than two decimals,
+    // an exponent, very long numbers) goes through Money.parse. Returns INVALID_AMOUNT if the field is not a number.
+    private static long parseCents(byte[] bytes, int start, int end) {
+        while (start < end && isTrimmed(bytes[start])) {
+            start++;
+        }
+        while (end > start && isTrimmed(bytes[end - 1])) {
+            end--;
+        }
+        boolean negative = start < end && bytes[start] == '-';
+        int i = negative ? start + 1 : start;
+        long units = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9' && digits < 15 && fractionDigits < 2) {
+                units = units * 10 + (b - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return parseCentsSlow(bytes, start, end);
+            }
+        }
+        if (digits == 0) {
+            return INVALID_AMOUNT;
+        }
+        for (int scale = Math.max(fractionDigits, 0); scale < 2; scale++) {
+            units *= 10;
+        }
+        return negative ? -units : units;
+    }
+
+    private static long parseCentsSlow(byte[] bytes, int start, int end) {
+        try {
+            return Money.parse(new String(bytes, start, end - start, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return INVALID_AMOUNT;
+        }
+    }
+
+    // Whole number with an optional sign, as Integer.parseInt reads it, or INVALID_AMOUNT if the field is not one.
+    // The caller checks the int range.
+    private static long parseStock(byte[] bytes, int start, int end) {
+        while (start < end && isTrimmed(bytes[start])) {
+            start++;
+        }
+        while (end > start && isTrimmed(bytes[end - 1])) {
+            end--;
+        }
+        boolean negative = start < end && bytes[start] == '-';
+        if (start < end && (negative || bytes[start] == '+')) {
+            start++;
+        }
+        if (start == end || end - start > 10) {
+            return INVALID_AMOUNT;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            byte b = bytes[i];
+            if (b < '0' || b > '9') {
+                return INVALID_AMOUNT;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    // The characters String.trim removes. Bytes of multi-byte UTF-8 characters are all above 0x7F.
+    private static boolean isTrimmed(byte b) {
+        return (b & 0xFF) <= ' ';
+    }
+
+    private static boolean isBlank(byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            if (!isTrimmed(bytes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package com.pawsshop;
+
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.SwingUtilities;
+import java.util.function.Consumer;
+
+// Combo box model listing the catalog's categories. Categories that appear later (a new supply,
+// a reload) are added on the event dispatch thread, so every dropdown stays in step with the catalog.
+// Call detach() when the window closes.
+public class CategoryComboBoxModel extends DefaultComboBoxModel<String> {
+    private final CategoryRegistry registry;
+    private final Consumer<String> listener = category -> SwingUtilities.invokeLater(() -> addCategory(category));
+
+    // Leading items such as "All" are shown before the categories
+    public CategoryComboBoxModel(CategoryRegistry registry, String... leadingItems) {
+        this.registry = registry;
+        for (String item : leadingItems) {
+            addElement(item);
+        }
+        registry.addListener(listener); // Before the first read, so no category can slip in between
+        for (String category : registry.getCategories()) {
+            addCategory(category);
+        }
+    }
+
+    public void detach() {
+        registry.removeListener(listener);
+    }
+
+    private void addCategory(String category) {
+        if (getIndexOf(category) < 0) {
+            addElement(category);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.pawsshop;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Process-wide dictionary of category names. Every category is stored once and products only keep
+// its small integer id, so a catalog with a million products still holds a handful of category strings.
+// Ids are handed out in order of first appearance and never change while the program runs.
+public final class CategoryDictionary {
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    // Copy-on-write tables indexed by id, replaced as a whole when a category is added
+    private static volatile String[] names = new String[0];
+    private static volatile byte[][] encodedNames = new byte[0][];
+    private static volatile int[] encodedHashes = new int[0];
+
+    private CategoryDictionary() {
+    }
+
+    // Id of the category, adding it to the dictionary if it is new
+    public static int intern(String category) {
+        Integer id = ids.get(category);
+        return id != null ? id : add(category);
+    }
+
+    // Same as intern(String) for UTF-8 bytes, without creating a String when the category is already known
+    public static int intern(byte[] utf8, int start, int end) {
+        int hash = hash(utf8, start, end);
+        byte[][] encoded = encodedNames;
+        int[] hashes = encodedHashes;
+        for (int id = 0; id < encoded.length; id++) {
+            if (hashes[id] == hash && Arrays.equals(encoded[id], 0, encoded[id].length, utf8, start, end)) {
+                return id;
+            }
+        }
+        return intern(new String(utf8, start, end - start, StandardCharsets.UTF_8));
+    }
+
+    // Id of a known category, or -1 if no product has ever used it
+    public static int find(String category) {
+        Integer id = ids.get(category);
+        return id != null ? id : -1;
+    }
+
+    public static String name(int id) {
+        return names[id];
+    }
+
+    public static int size() {
+        return names.length;
+    }
+
+    private static synchronized int add(String category) {
+        Integer existing = ids.get(category);
+        if (existing != null) {
+            return existing; // Added by another thread in the meantime
+        }
+        int id = names.length;
+        byte[] encoded = category.getBytes(StandardCharsets.UTF_8);
+
+        String[] newNames = Arrays.copyOf(names, id + 1);
+        newNames[id] = category;
+        byte[][] newEncodedNames = Arrays.copyOf(encodedNames, id + 1);
+        newEncodedNames[id] = encoded;
+        int[] newHashes = Arrays.copyOf(encodedHashes, id + 1);
+        newHashes[id] = hash(encoded, 0, encoded.length);
+
+        // Names and hashes before encodings, so a reader that finds the id by its encoding can also
+        // look up its name and hash
+        names = newNames;
+        encodedHashes = newHashes;
+        encodedNames = newEncodedNames;
+        ids.put(category, id);
+        return id;
+    }
+
+    private static int hash(byte[] bytes, int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash;
+    }
+}
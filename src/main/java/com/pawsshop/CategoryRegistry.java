@@ -0,0 +1,103 @@
+package com.pawsshop;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Categories of one catalog, derived from its products instead of hard-coded lists.
+// Every category keeps a posting list of its product ids (in ascending order, as ids are handed
+// out) and live counts of products and units in stock. Listeners hear about new categories, so
+// dropdowns can pick them up as soon as the first product of a category is added.
+public class CategoryRegistry {
+
+    private static class Entry {
+        private final String name;
+        private final IntList productIds = new IntList(16);
+        private final AtomicLong unitsInStock = new AtomicLong();
+
+        Entry(String name) {
+            this.name = name;
+        }
+    }
+
+    // Indexed by CategoryDictionary id, null for categories this catalog has no product in.
+    // Replaced as a whole when a category is added, so lookups need no lock.
+    private volatile Entry[] entries = new Entry[0];
+    private final List<String> names = new CopyOnWriteArrayList<>(); // In order of first appearance
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    // Called by the catalog for every product it adds
+    void add(Product product) {
+        String newCategory = null;
+        synchronized (this) {
+            Entry entry = entry(product.getCategoryId());
+            if (entry == null) {
+                entry = new Entry(product.getCategory());
+                Entry[] grown = Arrays.copyOf(entries, Math.max(entries.length, product.getCategoryId() + 1));
+                grown[product.getCategoryId()] = entry;
+                entries = grown;
+                names.add(entry.name);
+                newCategory = entry.name;
+            }
+            entry.productIds.add(product.getId());
+            entry.unitsInStock.addAndGet(product.getStockQuantity());
+        }
+        if (newCategory != null) {
+            for (Consumer<String> listener : listeners) {
+                listener.accept(newCategory);
+            }
+        }
+    }
+
+    // Called by the catalog whenever the stock of a product it holds goes up or down
+    void adjustStock(Product product, long delta) {
+        Entry entry = entry(product.getCategoryId());
+        if (entry != null) {
+            entry.unitsInStock.addAndGet(delta);
+        }
+    }
+
+    synchronized void clear() {
+        entries = new Entry[0];
+        names.clear();
+    }
+
+    // Category names in order of first appearance
+    public List<String> getCategories() {
+        return Collections.unmodifiableList(names);
+    }
+
+    // Ids of the products in the category, in ascending order (empty if the category is unknown)
+    public synchronized int[] getProductIds(String category) {
+        Entry entry = entry(CategoryDictionary.find(category));
+        return entry == null ? new int[0] : entry.productIds.toArray();
+    }
+
+    public synchronized int getProductCount(String category) {
+        Entry entry = entry(CategoryDictionary.find(category));
+        return entry == null ? 0 : entry.productIds.size();
+    }
+
+    public long getUnitsInStock(String category) {
+        Entry entry = entry(CategoryDictionary.find(category));
+        return entry == null ? 0 : entry.unitsInStock.get();
+    }
+
+    // The listener is called with the name of every category that gets its first product,
+    // on the thread that added the product
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<String> listener) {
+        listeners.remove(listener);
+    }
+
+    private Entry entry(int categoryId) {
+        Entry[] current = entries;
+        return categoryId >= 0 && categoryId < current.length ? current[categoryId] : null;
+    }
+}
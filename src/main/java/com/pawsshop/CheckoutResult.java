@@ -0,0 +1,50 @@
+package com.pawsshop;
+
+// Outcome of taking a cart out of stock: either every line was reserved, or nothing was
+// and the first product that did not have enough stock is reported
+public class CheckoutResult {
+    private static final CheckoutResult SUCCESS = new CheckoutResult(null, 0, 0);
+
+    private final Product shortProduct;
+    private final int requested;
+    private final int available;
+
+    private CheckoutResult(Product shortProduct, int requested, int available) {
+        this.shortProduct = shortProduct;
+        this.requested = requested;
+        this.available = available;
+    }
+
+    public static CheckoutResult success() {
+        return SUCCESS;
+    }
+
+    public static CheckoutResult insufficientStock(Product product, int requested, int available) {
+        return new CheckoutResult(product, requested, available);
+    }
+
+    public boolean isSuccess() {
+        return shortProduct == null;
+    }
+
+    // Product that could not be reserved, or null on success
+    public Product getShortProduct() {
+        return shortProduct;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public String getMessage() {
+        if (isSuccess()) {
+            return "Checkout completed";
+        }
+        return "Insufficient stock for " + shortProduct.getName() + " (" + shortProduct.getCategory() + "): requested "
+                + requested + ", only " + available + " left";
+    }
+}
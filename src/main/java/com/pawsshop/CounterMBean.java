@@ -0,0 +1,8 @@
+package com.pawsshop;
+
+// JMX view of a Counter
+public interface CounterMBean {
+    long getCount();
+
+    void reset();
+}
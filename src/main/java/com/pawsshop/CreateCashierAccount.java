@@ -1,9 +1,9 @@
+package com.pawsshop;
+
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.ActionListener;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -17,9 +17,6 @@ public class CreateCashierAccount extends JFrame {
     private static final Font FIELD_FONT = new Font("Arial", Font.PLAIN, 14);  // Smaller font size for input fields
     private static final Font BUTTON_FONT = new Font("Arial", Font.BOLD, 18); // Font for buttons
 
-    private static final String CREDENTIALS_FILE_PATH = "credentials.txt"; // Path to save the username, password, and role
-    private static final String CASHIER_ACCOUNTS_FILE_PATH = "cashier_accounts.txt"; // Path to save all cashier details
-
     private final DashboardWindow dashboardWindow;  // Reference to DashboardWindow
 
     public CreateCashierAccount(DashboardWindow dashboardWindow) {
@@ -93,6 +90,17 @@ public class CreateCashierAccount extends JFrame {
             String email = emailField.getText();
             String role = (String) roleDropdown.getSelectedItem();
 
+            if (username.trim().isEmpty() || username.contains(",")) {
+                JOptionPane.showMessageDialog(null, "Please enter a username without commas!");
+                return;
+            }
+
+            // Reject a taken username before anything else is checked
+            if (UserDirectory.getInstance().exists(username)) {
+                JOptionPane.showMessageDialog(null, "Username already exists!");
+                return;
+            }
+
             // Validate email format
             if (!isValidEmail(email)) {
                 JOptionPane.showMessageDialog(null, "Please enter a valid email address!");
@@ -105,9 +113,10 @@ public class CreateCashierAccount extends JFrame {
                 return;
             }
 
-            // Save the new cashier details to both files
-            saveCashierDetails(username, password, email, role);
-            saveCredentials(username, password, role);
+            // Save the new cashier account with a single write
+            if (!saveCashierAccount(username, password, email, role)) {
+                return;
+            }
 
             JOptionPane.showMessageDialog(this, "Cashier account created successfully!");
             dispose();  // Close the form after submission
@@ -148,25 +157,18 @@ public class CreateCashierAccount extends JFrame {
         return matcher.matches();
     }
 
-    // Save all cashier details to the file
-    private void saveCashierDetails(String username, String password, String email, String role) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(CASHIER_ACCOUNTS_FILE_PATH, true))) {
-            writer.write(username + "," + password + "," + email + "," + role);
-            writer.newLine();
-        } catch (IOException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error saving cashier details.");
-        }
-    }
-
-    // Save username, password, and role to the credentials file
-    private void saveCredentials(String username, String password, String role) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(CREDENTIALS_FILE_PATH, true))) {
-            writer.write(username + "," + password + "," + role);
-            writer.newLine();
+    // Save the account (username, role, email and salted password hash) to the user directory
+    private boolean saveCashierAccount(String username, String password, String email, String role) {
+        try {
+            if (!UserDirectory.getInstance().createAccount(username, password, email, role)) {
+                JOptionPane.showMessageDialog(this, "Username already exists!");
+                return false;
+            }
+            return true;
         } catch (IOException e) {
             e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error saving credentials.");
+            JOptionPane.showMessageDialog(this, "Error saving cashier account.");
+            return false;
         }
     }
 
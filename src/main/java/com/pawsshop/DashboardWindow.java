@@ -1,7 +1,11 @@
+package com.pawsshop;
+
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.util.concurrent.ExecutionException;
 
 public class DashboardWindow extends JFrame {
     private static final Color PRIMARY_COLOR = new Color(70, 130, 180); // Steel Blue
@@ -20,7 +24,7 @@ public class DashboardWindow extends JFrame {
 
     private void initializeFrame() {
         setTitle(role + " Dashboard - The Paws Shop");
-        setSize(500, 600);
+        setSize(500, role.equals("Manager") ? 760 : 680);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
         setResizable(false);
@@ -42,16 +46,19 @@ public class DashboardWindow extends JFrame {
         // Buttons Panel
         JPanel buttonsPanel = new JPanel();
         buttonsPanel.setBackground(BACKGROUND_COLOR);
-        buttonsPanel.setLayout(new GridLayout(role.equals("Manager") ? 5 : 4, 1, 0, 15));
+        buttonsPanel.setLayout(new GridLayout(role.equals("Manager") ? 8 : 5, 1, 0, 15));
         buttonsPanel.setBorder(new EmptyBorder(40, 40, 40, 40));
 
         // Create and add buttons
         addStyledButton(buttonsPanel, "View Pet Supplies", e -> openWindow(new ViewSearchWindow()));
         addStyledButton(buttonsPanel, "Add New Pet Supplies", e -> openWindow(new AddSuppliesWindow()));
         addStyledButton(buttonsPanel, "Process Transaction", e -> openWindow(new TransactionWindow(role)));
+        addStyledButton(buttonsPanel, "Low Stock", e -> new LowStockWindow(this).setVisible(true));
 
         if (role.equals("Manager")) {
             addStyledButton(buttonsPanel, "Create Cashier Account", e -> openWindow(new CreateCashierAccount(this)));
+            addStyledButton(buttonsPanel, "Sales Reports", e -> showSalesReport());
+            addStyledButton(buttonsPanel, "Diagnostics", e -> new DiagnosticsWindow(this).setVisible(true));
         }
 
         // Logout button
@@ -119,6 +126,29 @@ public class DashboardWindow extends JFrame {
         dispose();
     }
 
+    // Summarises the transaction journal in the background and shows the report in a dialog
+    private void showSalesReport() {
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() throws Exception {
+                return new SalesReportEngine().summarize(new File(TransactionJournal.FILE_PATH)).format(10);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    JTextArea reportArea = new JTextArea(get(), 25, 70);
+                    reportArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+                    reportArea.setEditable(false);
+                    JOptionPane.showMessageDialog(DashboardWindow.this, new JScrollPane(reportArea), "Sales Reports", JOptionPane.PLAIN_MESSAGE);
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(DashboardWindow.this, "Failed to build the sales report!", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
     private void logout() {
         int choice = JOptionPane.showConfirmDialog(
                 this,
@@ -0,0 +1,126 @@
+package com.pawsshop;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Watches data files for changes made by other programs and runs a handler for each changed file
+// on its own daemon thread, never on the Swing event thread. Events are collected until the
+// directory has been quiet for a moment, so a file written in several steps is handled once.
+public class DataFileWatcher implements Closeable {
+    private static final long QUIET_MILLIS = Long.getLong("paws.watch.quietMillis", 250);
+
+    private final WatchService watchService;
+    private final Map<Path, Runnable> handlers = new ConcurrentHashMap<>(); // Absolute file path -> handler
+    private final Set<Path> directories = ConcurrentHashMap.newKeySet();
+    private final Thread thread;
+
+    public DataFileWatcher() throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.thread = new Thread(this::run, "data-file-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    // Watches the files behind the shared catalog and user directory and merges outside edits into them
+    public static DataFileWatcher watchSharedFiles() throws IOException {
+        ProductCatalog catalog = ProductCatalog.getInstance();
+        UserDirectory users = UserDirectory.getInstance();
+        DataFileWatcher watcher = new DataFileWatcher();
+        watcher.watch(catalog.getDataFile(), () -> {
+            try {
+                int changed = catalog.applyExternalChanges().size();
+                if (changed > 0) {
+                    System.out.println(catalog.getDataFile() + " changed on disk, updated " + changed + " products");
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        watcher.watch(users.getCredentialsFile(), () -> {
+            try {
+                int changed = users.applyExternalChanges();
+                if (changed > 0) {
+                    System.out.println(users.getCredentialsFile() + " changed on disk, updated " + changed + " accounts");
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        watcher.start();
+        return watcher;
+    }
+
+    // Runs the handler after the file is created, replaced or modified
+    public void watch(File file, Runnable handler) throws IOException {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        Path directory = path.getParent();
+        if (directories.add(directory)) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+        handlers.put(path, handler);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Set<Runnable> pending = new LinkedHashSet<>();
+                collect(watchService.take(), pending);
+                WatchKey key;
+                while ((key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, pending);
+                }
+                for (Runnable handler : pending) {
+                    try {
+                        handler.run();
+                    } catch (RuntimeException e) {
+                        e.printStackTrace(); // Keep watching the other files
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watcher closed
+        }
+    }
+
+    // Adds the handlers of the files the key reports as changed
+    private void collect(WatchKey key, Set<Runnable> pending) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost, check every file in the directory
+                for (Map.Entry<Path, Runnable> entry : handlers.entrySet()) {
+                    if (entry.getKey().getParent().equals(directory)) {
+                        pending.add(entry.getValue());
+                    }
+                }
+                continue;
+            }
+            Runnable handler = handlers.get(directory.resolve((Path) event.context()));
+            if (handler != null) {
+                pending.add(handler);
+            }
+        }
+        key.reset();
+    }
+}
@@ -0,0 +1,115 @@
+package com.pawsshop;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.List;
+
+// Small diagnostics panel for the manager: latency percentiles and counters from Metrics,
+// refreshed every second while the window is open
+public class DiagnosticsWindow extends JDialog {
+    private static final Color BACKGROUND_COLOR = new Color(240, 248, 255); // Alice Blue
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final LatencyTableModel latencyModel = new LatencyTableModel();
+    private final JLabel countersLabel = new JLabel();
+    private final Timer refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    // Percentiles are read from the histograms when the table asks for them, times in milliseconds
+    private static class LatencyTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Operation", "Count", "Mean", "p50", "p90", "p99", "p99.9", "Max"};
+        private final List<LatencyHistogram> histograms = Metrics.getHistograms();
+
+        @Override
+        public int getRowCount() {
+            return histograms.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            LatencyHistogram histogram = histograms.get(row);
+            switch (column) {
+                case 0:
+                    return histogram.getName();
+                case 1:
+                    return histogram.getCount();
+                case 2:
+                    return formatMillis(histogram.getMeanMicros());
+                case 3:
+                    return formatMillis(histogram.getP50Micros());
+                case 4:
+                    return formatMillis(histogram.getP90Micros());
+                case 5:
+                    return formatMillis(histogram.getP99Micros());
+                case 6:
+                    return formatMillis(histogram.getP999Micros());
+                default:
+                    return formatMillis(histogram.getMaxMicros());
+            }
+        }
+
+        private static String formatMillis(double micros) {
+            return String.format("%.3f ms", micros / 1000.0);
+        }
+    }
+
+    public DiagnosticsWindow(Frame owner) {
+        super(owner, "Diagnostics - The Paws Shop", false);
+        setSize(760, 320);
+        setLocationRelativeTo(owner);
+        setLayout(new BorderLayout());
+        getContentPane().setBackground(BACKGROUND_COLOR);
+
+        JTable latencyTable = new JTable(latencyModel);
+        latencyTable.setRowHeight(24);
+        add(new JScrollPane(latencyTable), BorderLayout.CENTER);
+
+        JButton resetButton = new JButton("Reset");
+        resetButton.addActionListener(e -> {
+            for (LatencyHistogram histogram : Metrics.getHistograms()) {
+                histogram.reset();
+            }
+            for (Counter counter : Metrics.getCounters()) {
+                counter.reset();
+            }
+            refresh();
+        });
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.setBackground(BACKGROUND_COLOR);
+        bottomPanel.setBorder(BorderFactory.createEmptyBorder(8, 10, 8, 10));
+        bottomPanel.add(countersLabel, BorderLayout.CENTER);
+        bottomPanel.add(resetButton, BorderLayout.EAST);
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        refresh();
+        refreshTimer.start();
+    }
+
+    private void refresh() {
+        StringBuilder counters = new StringBuilder();
+        for (Counter counter : Metrics.getCounters()) {
+            if (counters.length() > 0) {
+                counters.append("   ");
+            }
+            counters.append(counter.getName()).append(": ").append(counter.getCount());
+        }
+        countersLabel.setText(counters.toString());
+        latencyModel.fireTableDataChanged();
+    }
+
+    @Override
+    public void dispose() {
+        refreshTimer.stop();
+        super.dispose();
+    }
+}
@@ -0,0 +1,386 @@
+package com.pawsshop;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// HTTP API for handheld scanners and remote tills, served by the JDK's built-in HTTP server
+// with one virtual thread per request. Runs without the GUI:
+//   java com.pawsshop.InventoryServer [port] [bind address]
+//
+// Listens on 127.0.0.1 only unless another address is given (or set with -Dpaws.http.bind),
+// e.g. 0.0.0.0 for every interface.
+//
+// Parameters are form-encoded, in the query string for GET and in the body for POST. Responses are JSON.
+// POST requests change data and need the username and password of a shop account as HTTP Basic
+// authentication (401 without it), checked against the same credentials as the login window.
+// A verified header is remembered for a few minutes, so a till only pays for the password hash
+// on its first request and after the account changes.
+//   GET  /products?name=..&category=..            one product, 404 if unknown
+//   GET  /search?q=..&category=..&limit=..         products whose name contains q (limit defaults to 100)
+//                                                 &fuzzy=true: if none does, the closest names allowing for typos
+//   POST /restock   name, category, price, quantity  adds a product or tops up its stock
+//   POST /checkout  item=name,category,quantity (repeated)  sells all items or none (409),
+//                   recorded with the logged-in user as the cashier
+public class InventoryServer {
+    private static final int DEFAULT_PORT = Integer.getInteger("paws.http.port", 8080);
+    private static final String DEFAULT_BIND_ADDRESS = System.getProperty("paws.http.bind", "127.0.0.1");
+    private static final int DEFAULT_SEARCH_LIMIT = 100;
+    private static final int BACKLOG = 1024;
+    private static final long LOGIN_CACHE_NANOS = TimeUnit.SECONDS.toNanos(Long.getLong("paws.http.loginCacheSeconds", 300));
+    private static final int LOGIN_CACHE_ENTRIES = 10_000;
+
+    private final InventoryService service;
+    private final UserDirectory users;
+    private final HttpServer server;
+    private final ExecutorService executor = newRequestExecutor();
+    private final Map<String, VerifiedLogin> verifiedLogins = new ConcurrentHashMap<>(); // Header digest -> login
+    private final SecretKeySpec loginCacheKey;
+
+    // An Authorization header whose password matched. It stays valid while the account record is the
+    // one it was checked against: a new password, an upgrade or an outside edit replaces the record.
+    private static class VerifiedLogin {
+        private final String username;
+        private final UserDirectory.Account account;
+        private final long expiresAt;
+
+        VerifiedLogin(String username, UserDirectory.Account account, long expiresAt) {
+            this.username = username;
+            this.account = account;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Thrown by the handlers to answer with an error status
+    private static class HttpError extends Exception {
+        private final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    // username is the authenticated user for POST requests and null for GET requests
+    private interface Handler {
+        String handle(Map<String, List<String>> parameters, String username) throws HttpError, IOException;
+    }
+
+    static {
+        // The server writes headers and body separately; without TCP_NODELAY every keep-alive
+        // response waits for the client's delayed ACK (about 40 ms on Linux)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    public InventoryServer(InventoryService service, UserDirectory users, int port) throws IOException {
+        this(service, users, DEFAULT_BIND_ADDRESS, port);
+    }
+
+    public InventoryServer(InventoryService service, UserDirectory users, String bindAddress, int port) throws IOException {
+        this.service = service;
+        this.users = users;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.loginCacheKey = new SecretKeySpec(key, "HmacSHA256"); // The cache never holds the headers themselves
+        this.server = HttpServer.create(new InetSocketAddress(bindAddress, port), BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/products", exchange -> serve(exchange, "GET", (parameters, username) -> lookup(parameters)));
+        server.createContext("/search", exchange -> serve(exchange, "GET", (parameters, username) -> search(parameters)));
+        server.createContext("/restock", exchange -> serve(exchange, "POST", this::restock));
+        server.createContext("/checkout", exchange -> serve(exchange, "POST", this::checkout));
+    }
+
+    // One virtual thread per request. The build targets Java 17, so the Java 21 factory is looked up at run time.
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(); // Older runtime: one platform thread per concurrent request
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    // Port the server is listening on, useful when it was started on port 0
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    private String lookup(Map<String, List<String>> parameters) throws HttpError {
+        Product product = service.lookup(required(parameters, "name"), required(parameters, "category"));
+        if (product == null) {
+            throw new HttpError(404, "Product not found");
+        }
+        return toJson(product);
+    }
+
+    private String search(Map<String, List<String>> parameters) throws HttpError {
+        String query = optional(parameters, "q", "");
+        String category = optional(parameters, "category", null);
+        int limit = parseInt(optional(parameters, "limit", String.valueOf(DEFAULT_SEARCH_LIMIT)), "limit");
+
+        int[] ids = service.search(query, category);
+        if (ids.length == 0 && Boolean.parseBoolean(optional(parameters, "fuzzy", "false"))) {
+            ids = service.fuzzySearch(query, category, limit);
+        }
+        StringBuilder json = new StringBuilder("{\"total\":").append(ids.length).append(",\"products\":[");
+        ProductCatalog catalog = service.getCatalog();
+        for (int i = 0; i < ids.length && i < limit; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(toJson(catalog.getProduct(ids[i])));
+        }
+        return json.append("]}").toString();
+    }
+
+    private String restock(Map<String, List<String>> parameters, String username) throws HttpError, IOException {
+        long priceCents;
+        try {
+            priceCents = Money.parse(required(parameters, "price"));
+        } catch (NumberFormatException e) {
+            throw new HttpError(400, "Invalid price");
+        }
+        int quantity = parseInt(required(parameters, "quantity"), "quantity");
+        try {
+            boolean updated = service.restock(required(parameters, "name"), required(parameters, "category"), priceCents, quantity);
+            return "{\"updated\":" + updated + "}";
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(400, e.getMessage());
+        }
+    }
+
+    private String checkout(Map<String, List<String>> parameters, String cashier) throws HttpError, IOException {
+        List<String> items = parameters.get("item");
+        if (items == null || items.isEmpty()) {
+            throw new HttpError(400, "Missing parameter: item");
+        }
+
+        Cart cart = new Cart();
+        for (String item : items) {
+            // name,category,quantity taken from the right, so a comma inside the name is kept
+            int quantityStart = item.lastIndexOf(',');
+            int categoryStart = quantityStart > 0 ? item.lastIndexOf(',', quantityStart - 1) : -1;
+            if (categoryStart <= 0) {
+                throw new HttpError(400, "Item must be name,category,quantity: " + item);
+            }
+            Product product = service.lookup(item.substring(0, categoryStart), item.substring(categoryStart + 1, quantityStart));
+            if (product == null) {
+                throw new HttpError(404, "Product not found: " + item);
+            }
+            int quantity = parseInt(item.substring(quantityStart + 1), "quantity");
+            if (quantity <= 0) {
+                throw new HttpError(400, "Quantity must be positive: " + item);
+            }
+            cart.add(product, quantity);
+        }
+
+        CheckoutResult result = service.sell(cart);
+        if (!result.isSuccess()) {
+            throw new HttpError(409, result.getMessage());
+        }
+        TransactionRecord record = service.recordSale(cart, cashier);
+        return "{\"transactionId\":" + record.getTransactionId() + ",\"total\":\"" + Money.format(cart.getTotalCents()) + "\"}";
+    }
+
+    private void serve(HttpExchange exchange, String method, Handler handler) throws IOException {
+        int status = 200;
+        String body;
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                throw new HttpError(405, "Use " + method);
+            }
+            String username = null;
+            Map<String, List<String>> parameters;
+            if (method.equals("GET")) {
+                parameters = parseForm(exchange.getRequestURI().getRawQuery());
+            } else {
+                username = authenticate(exchange.getRequestHeaders().getFirst("Authorization"));
+                parameters = parseForm(new String(readAll(exchange.getRequestBody()), StandardCharsets.UTF_8));
+            }
+            body = handler.handle(parameters, username);
+        } catch (HttpError e) {
+            status = e.status;
+            body = "{\"error\":" + quote(e.getMessage()) + "}";
+            if (status == 401) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"Paws Shop\", charset=\"UTF-8\"");
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + " failed: " + e);
+            status = 500;
+            body = "{\"error\":" + quote(String.valueOf(e.getMessage())) + "}";
+        }
+
+        // Read what is left of the body, e.g. after a 401, so the connection can be kept alive
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Checks the Basic credentials of the request against the shop accounts, returns the username
+    private String authenticate(String authorization) throws HttpError {
+        if (authorization == null || !authorization.regionMatches(true, 0, "Basic ", 0, 6)) {
+            throw new HttpError(401, "Login required");
+        }
+        String digest = digest(authorization);
+        VerifiedLogin login = verifiedLogins.get(digest);
+        if (login == null || login.expiresAt - System.nanoTime() < 0 || users.getAccount(login.username) != login.account) {
+            login = verify(authorization);
+            if (verifiedLogins.size() >= LOGIN_CACHE_ENTRIES) {
+                verifiedLogins.clear();
+            }
+            verifiedLogins.put(digest, login);
+        }
+        if (users.isPasswordExpired(login.username)) {
+            throw new HttpError(403, "Password expired, change it at the login window first");
+        }
+        return login.username;
+    }
+
+    // Runs the password check (PBKDF2, tens of milliseconds) for a header that is not cached
+    private VerifiedLogin verify(String authorization) throws HttpError {
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(authorization.substring(6).trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(401, "Login required");
+        }
+        int colon = credentials.indexOf(':');
+        if (colon <= 0) {
+            throw new HttpError(401, "Login required");
+        }
+        String username = credentials.substring(0, colon);
+        // Taken before the check, so a record replaced meanwhile only causes another check later
+        UserDirectory.Account account = users.getAccount(username);
+        if (users.authenticate(username, credentials.substring(colon + 1)) == null) {
+            throw new HttpError(401, "Invalid username or password");
+        }
+        return new VerifiedLogin(username, account, System.nanoTime() + LOGIN_CACHE_NANOS);
+    }
+
+    private String digest(String authorization) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(loginCacheKey);
+            return Base64.getEncoder().encodeToString(mac.doFinal(authorization.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static Map<String, List<String>> parseForm(String form) {
+        Map<String, List<String>> parameters = new HashMap<>();
+        if (form == null || form.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : form.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            parameters.computeIfAbsent(key, k -> new ArrayList<>(1)).add(value);
+        }
+        return parameters;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        in.transferTo(bytes);
+        return bytes.toByteArray();
+    }
+
+    private static String required(Map<String, List<String>> parameters, String name) throws HttpError {
+        String value = optional(parameters, name, null);
+        if (value == null || value.isEmpty()) {
+            throw new HttpError(400, "Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static String optional(Map<String, List<String>> parameters, String name, String defaultValue) {
+        List<String> values = parameters.get(name);
+        return values == null ? defaultValue : values.get(0);
+    }
+
+    private static int parseInt(String value, String name) throws HttpError {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new HttpError(400, "Invalid " + name + ": " + value);
+        }
+    }
+
+    private static String toJson(Product product) {
+        return "{\"name\":" + quote(product.getName())
+                + ",\"category\":" + quote(product.getCategory())
+                + ",\"price\":\"" + Money.format(product.getPriceCents())
+                + "\",\"stock\":" + product.getStockQuantity() + "}";
+    }
+
+    private static String quote(String text) {
+        StringBuilder json = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String bindAddress = args.length > 1 ? args[1] : DEFAULT_BIND_ADDRESS;
+        ProductCatalog catalog = ProductCatalog.getInstance();
+        if (catalog.getLoadError() != null) {
+            System.err.println("Error loading product data: " + catalog.getLoadError().getMessage());
+        }
+        InventoryServer server = new InventoryServer(InventoryService.getInstance(), UserDirectory.getInstance(), bindAddress, port);
+        server.start();
+        DataFileWatcher.watchSharedFiles();
+        System.out.println("Paws Shop inventory API listening on " + server.getAddress().getHostString() + ":" + server.getPort()
+                + " (" + catalog.getProducts().size() + " products)");
+    }
+}
@@ -0,0 +1,138 @@
+package com.pawsshop;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletionException;
+
+// Inventory operations without any Swing code: product lookup, search, restock and checkout.
+// The windows and the HTTP API (InventoryServer) both go through this class, so a sale made at a
+// remote terminal follows exactly the same rules as one made at the till. Safe to use from many threads.
+public class InventoryService {
+    // Time a fuzzy search may take before it returns the best matches found so far
+    private static final long FUZZY_BUDGET_NANOS = Long.getLong("paws.search.fuzzyBudgetMillis", 50) * 1_000_000;
+
+    private static InventoryService instance;
+
+    private final ProductCatalog catalog;
+    private final TransactionJournal journal; // null: use the shared TransactionJournal, opened on first sale
+
+    public InventoryService(ProductCatalog catalog, TransactionJournal journal) {
+        this.catalog = catalog;
+        this.journal = journal;
+    }
+
+    // Service over the shared catalog and transaction journal
+    public static synchronized InventoryService getInstance() {
+        if (instance == null) {
+            instance = new InventoryService(ProductCatalog.getInstance(), null);
+        }
+        return instance;
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    // Product with this (name, category), or null
+    public Product lookup(String name, String category) {
+        return catalog.findProduct(name, category);
+    }
+
+    // Ids of the products whose name contains the text (ignoring case), in catalog order.
+    // A null or "All" category matches every category.
+    public int[] search(String text, String category) {
+        long started = System.nanoTime();
+        int[] result;
+        if (category == null || category.equals("All")) {
+            result = catalog.getSearchIndex().search(text);
+        } else if (text.isEmpty()) {
+            result = catalog.getCategoryRegistry().getProductIds(category); // Only the category's posting list
+        } else {
+            result = intersect(catalog.getSearchIndex().search(text), catalog.getCategoryRegistry().getProductIds(category));
+        }
+        Metrics.SEARCH_QUERY.recordSince(started);
+        return result;
+    }
+
+    // Up to limit ids of the products whose name is closest to the text, allowing for typos,
+    // best match first (see ProductSearchIndex.fuzzySearch). A null or "All" category matches every category.
+    public int[] fuzzySearch(String text, String category, int limit) {
+        long started = System.nanoTime();
+        int[] result;
+        if (category == null || category.equals("All")) {
+            result = catalog.getSearchIndex().fuzzySearch(text, limit, FUZZY_BUDGET_NANOS, null);
+        } else {
+            int[] categoryIds = catalog.getCategoryRegistry().getProductIds(category);
+            result = catalog.getSearchIndex().fuzzySearch(text, limit, FUZZY_BUDGET_NANOS,
+                    id -> Arrays.binarySearch(categoryIds, id) >= 0);
+        }
+        Metrics.FUZZY_SEARCH.recordSince(started);
+        return result;
+    }
+
+    // Ids present in both ascending arrays. Each id of the shorter array is looked up in the longer one
+    // with a binary search that starts after the previous hit, so a small category or a rare name stays cheap.
+    private static int[] intersect(int[] a, int[] b) {
+        int[] shorter = a.length <= b.length ? a : b;
+        int[] longer = shorter == a ? b : a;
+        IntList both = new IntList(shorter.length);
+        int from = 0;
+        for (int id : shorter) {
+            int position = Arrays.binarySearch(longer, from, longer.length, id);
+            if (position >= 0) {
+                both.add(id);
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+            if (from == longer.length) {
+                break;
+            }
+        }
+        return both.toArray();
+    }
+
+    // Adds a product or tops up an existing one. Returns true when an existing product was updated.
+    public boolean restock(String name, String category, long priceCents, int quantity) throws IOException {
+        String productName = name.trim();
+        String productCategory = category.trim();
+        if (productName.isEmpty() || productCategory.isEmpty() || productCategory.contains(",")) {
+            throw new IllegalArgumentException("Name and category must not be empty, and the category must not contain commas");
+        }
+        // A line break would end the product's record early in the journal and the data file
+        if (containsControlCharacter(productName) || containsControlCharacter(productCategory)) {
+            throw new IllegalArgumentException("Name and category must not contain line breaks, tabs or other control characters");
+        }
+        if (priceCents < 0 || quantity <= 0) {
+            throw new IllegalArgumentException("Price must not be negative and quantity must be positive");
+        }
+        return catalog.addOrRestock(productName, productCategory, priceCents, quantity);
+    }
+
+    private static boolean containsControlCharacter(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isISOControl(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Takes the whole cart out of stock, or nothing if a product runs short
+    public CheckoutResult sell(Cart cart) throws IOException {
+        return catalog.sell(cart.getQuantities());
+    }
+
+    // Appends a sold cart to the transaction journal and waits until its group commit is on disk
+    public TransactionRecord recordSale(Cart cart, String cashier) throws IOException {
+        TransactionJournal transactionJournal = journal != null ? journal : TransactionJournal.getInstance();
+        TransactionRecord record = TransactionRecord.fromCart(transactionJournal.nextTransactionId(),
+                System.currentTimeMillis(), cashier, cart);
+        try {
+            transactionJournal.append(record).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+        return record;
+    }
+}
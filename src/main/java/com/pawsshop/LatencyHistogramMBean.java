@@ -0,0 +1,20 @@
+package com.pawsshop;
+
+// JMX view of a LatencyHistogram, times in microseconds
+public interface LatencyHistogramMBean {
+    long getCount();
+
+    double getMeanMicros();
+
+    long getMaxMicros();
+
+    long getP50Micros();
+
+    long getP90Micros();
+
+    long getP99Micros();
+
+    long getP999Micros();
+
+    void reset();
+}
@@ -0,0 +1,325 @@
+package com.pawsshop;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Reproduces a busy day at the shop without the GUI. It writes product_data.txt and credentials.txt
+// into a working directory, then runs simulated cashiers against InventoryService and UserDirectory:
+// log in, search for products, build a cart and check out. Product popularity follows a Zipf
+// distribution, so a few best sellers get most of the traffic and sell out first.
+//
+//   java com.pawsshop.LoadGenerator [--dir loadtest] [--products 100000] [--cashiers 8]
+//                                   [--seconds 30] [--zipf 1.1] [--stock 200]
+//
+// At the end it reports throughput, latency percentiles per step, and checks that no product was
+// oversold and no stock update was lost, both in memory and after reloading the files from disk.
+public class LoadGenerator {
+    private static final String[] CATEGORIES = {"Food", "Pet Toys", "Harnesses", "Cages", "Grooming Products", "Collars"};
+    private static final String[] ADJECTIVES = {"Deluxe", "Classic", "Soft", "Large", "Small", "Organic", "Travel", "Squeaky", "Leather", "Reflective"};
+    private static final String[] NOUNS = {"Chew Toy", "Ball", "Harness", "Cage", "Brush", "Collar", "Leash", "Bed", "Shampoo", "Kibble", "Treats", "Bowl"};
+    private static final int MAX_CART_LINES = 5;
+    private static final int MAX_LINE_QUANTITY = 3;
+
+    private final File directory;
+    private final int productCount;
+    private final int cashierCount;
+    private final long durationNanos;
+    private final double zipfExponent;
+    private final int initialStock;
+
+    private final LatencyHistogram loginLatency = new LatencyHistogram("Login");
+    private final LatencyHistogram searchLatency = new LatencyHistogram("Search");
+    private final LatencyHistogram cartAddLatency = new LatencyHistogram("CartAdd");
+    private final LatencyHistogram checkoutLatency = new LatencyHistogram("Checkout");
+    private final AtomicLong checkouts = new AtomicLong();
+    private final AtomicLong rejectedCheckouts = new AtomicLong();
+    private final AtomicLong failedOperations = new AtomicLong();
+
+    private String[] names;
+    private String[] categories;
+    private double[] popularity; // Cumulative Zipf distribution over popularity ranks
+    private int[] productByRank; // Rank 0 is the best seller
+    private AtomicIntegerArray unitsSold; // Indexed by catalog id, counted only for successful checkouts
+
+    public LoadGenerator(File directory, int productCount, int cashierCount, int seconds, double zipfExponent, int initialStock) {
+        this.directory = directory;
+        this.productCount = productCount;
+        this.cashierCount = cashierCount;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+        this.zipfExponent = zipfExponent;
+        this.initialStock = initialStock;
+    }
+
+    public void run() throws IOException, InterruptedException {
+        Files.createDirectories(directory.toPath());
+        File productFile = new File(directory, "product_data.txt");
+        File credentialsFile = new File(directory, "credentials.txt");
+        File salesFile = new File(directory, "transaction_journal.dat");
+        for (String leftover : new String[]{"product_data.txt.journal", "product_data.txt.journal.old", "credentials.txt", "transaction_journal.dat"}) {
+            Files.deleteIfExists(new File(directory, leftover).toPath());
+        }
+
+        System.out.println("Writing " + productCount + " products and " + cashierCount + " cashier accounts to " + directory);
+        writeProducts(productFile);
+        UserDirectory users = new UserDirectory(credentialsFile);
+        users.load(); // Creates the default manager and cashier accounts
+        for (int i = 1; i <= cashierCount; i++) {
+            users.createAccount(cashierName(i), cashierPassword(i), "", "Cashier");
+        }
+
+        ProductCatalog catalog = new ProductCatalog(productFile);
+        catalog.load();
+        if (catalog.getLoadError() != null) {
+            throw catalog.getLoadError();
+        }
+        TransactionJournal salesJournal = new TransactionJournal(salesFile, 2);
+        InventoryService inventory = new InventoryService(catalog, salesJournal);
+        buildPopularity(catalog);
+        unitsSold = new AtomicIntegerArray(catalog.getProducts().size());
+
+        System.out.println("Running " + cashierCount + " cashiers for " + TimeUnit.NANOSECONDS.toSeconds(durationNanos) + " s");
+        long started = System.nanoTime();
+        long deadline = started + durationNanos;
+        List<Thread> cashiers = new ArrayList<>();
+        for (int i = 1; i <= cashierCount; i++) {
+            int cashier = i;
+            Thread thread = new Thread(() -> runCashier(cashier, users, inventory, deadline), "cashier-" + cashier);
+            cashiers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : cashiers) {
+            thread.join();
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        printReport(elapsedSeconds);
+        checkConsistency(catalog, productFile, salesFile);
+    }
+
+    private void runCashier(int cashier, UserDirectory users, InventoryService inventory, long deadline) {
+        SplittableRandom random = new SplittableRandom(cashier * 7919L);
+        String username = cashierName(cashier);
+
+        long started = System.nanoTime();
+        String role = users.authenticate(username, cashierPassword(cashier));
+        loginLatency.recordSince(started);
+        if (role == null) {
+            System.err.println(username + " could not log in");
+            failedOperations.incrementAndGet();
+            return;
+        }
+
+        ProductCatalog catalog = inventory.getCatalog();
+        while (System.nanoTime() < deadline) {
+            Cart cart = new Cart();
+            int lineCount = 1 + random.nextInt(MAX_CART_LINES);
+            for (int line = 0; line < lineCount; line++) {
+                int id = nextProduct(random);
+
+                // Type part of the product name into the search box, then pick the product from the result
+                String name = names[id];
+                int queryStart = random.nextInt(Math.max(1, name.length() - 4));
+                String query = name.substring(queryStart, Math.min(name.length(), queryStart + 4 + random.nextInt(6)));
+                started = System.nanoTime();
+                inventory.search(query, "All");
+                searchLatency.recordSince(started);
+
+                started = System.nanoTime();
+                Product product = inventory.lookup(name, categories[id]);
+                cart.add(product, 1 + random.nextInt(MAX_LINE_QUANTITY));
+                cartAddLatency.recordSince(started);
+            }
+
+            started = System.nanoTime();
+            try {
+                CheckoutResult result = inventory.sell(cart);
+                if (result.isSuccess()) {
+                    inventory.recordSale(cart, username);
+                    for (Cart.Line line : cart.getLines()) {
+                        unitsSold.addAndGet(line.getProduct().getId(), line.getQuantity());
+                    }
+                    checkouts.incrementAndGet();
+                } else {
+                    rejectedCheckouts.incrementAndGet();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                failedOperations.incrementAndGet();
+            }
+            checkoutLatency.recordSince(started);
+        }
+    }
+
+    private void printReport(double elapsedSeconds) {
+        System.out.println();
+        System.out.printf("Checkouts: %d completed, %d rejected for stock, %d failed%n",
+                checkouts.get(), rejectedCheckouts.get(), failedOperations.get());
+        System.out.printf("Throughput: %.1f checkouts/s, %.1f searches/s%n",
+                checkouts.get() / elapsedSeconds, searchLatency.getCount() / elapsedSeconds);
+        System.out.println();
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %10s%n", "Step", "Count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "Max ms");
+        for (LatencyHistogram histogram : Arrays.asList(loginLatency, searchLatency, cartAddLatency, checkoutLatency)) {
+            System.out.printf("%-10s %10d %10.3f %10.3f %10.3f %10.3f %10.3f%n", histogram.getName(), histogram.getCount(),
+                    histogram.getPercentileNanos(50) / 1e6, histogram.getPercentileNanos(90) / 1e6,
+                    histogram.getPercentileNanos(99) / 1e6, histogram.getPercentileNanos(99.9) / 1e6,
+                    histogram.getMaxMicros() / 1e3);
+        }
+    }
+
+    // Every product must end with its initial stock minus the units of the checkouts that succeeded,
+    // in memory and in the files, and the sales journal must hold exactly those sales
+    private void checkConsistency(ProductCatalog catalog, File productFile, File salesFile) throws IOException {
+        int oversold = 0;
+        int lostInMemory = 0;
+        long totalUnits = 0;
+        List<Product> products = catalog.getProducts();
+        for (Product product : products) {
+            int sold = unitsSold.get(product.getId());
+            totalUnits += sold;
+            if (sold > initialStock || product.getStockQuantity() < 0) {
+                oversold++;
+            }
+            if (product.getStockQuantity() != initialStock - sold) {
+                lostInMemory++;
+            }
+        }
+
+        // Wait for a background compaction to finish and write a fresh snapshot, then read everything back
+        catalog.compact();
+        ProductCatalog reloaded = new ProductCatalog(productFile);
+        reloaded.load();
+        int lostOnDisk = 0;
+        for (Product product : products) {
+            Product stored = reloaded.findProduct(product.getName(), product.getCategory());
+            if (stored == null || stored.getStockQuantity() != initialStock - unitsSold.get(product.getId())) {
+                lostOnDisk++;
+            }
+        }
+
+        SalesSummary sales = new SalesReportEngine().summarize(salesFile);
+        System.out.println();
+        System.out.println("Oversold products: " + oversold);
+        System.out.println("Lost stock updates: " + lostInMemory + " in memory, " + lostOnDisk + " after reload");
+        System.out.println("Sales journal: " + sales.getTransactions() + " transactions, " + sales.getUnits() + " units"
+                + (sales.getTransactions() == checkouts.get() && sales.getUnits() == totalUnits ? " (matches)" : " (MISMATCH, expected "
+                + checkouts.get() + " transactions, " + totalUnits + " units)"));
+    }
+
+    private void writeProducts(File productFile) throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        names = new String[productCount];
+        categories = new String[productCount];
+        try (BufferedWriter writer = Files.newBufferedWriter(productFile.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < productCount; i++) {
+                names[i] = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + (i + 1);
+                categories[i] = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                long priceCents = 99 + random.nextInt(9900);
+                writer.write(names[i] + "," + categories[i] + "," + Money.format(priceCents) + "," + initialStock);
+                writer.newLine();
+            }
+        }
+    }
+
+    // Zipf weights 1/rank^s over the products in a shuffled order, so best sellers are spread through the file
+    private void buildPopularity(ProductCatalog catalog) {
+        SplittableRandom random = new SplittableRandom(4242);
+        productByRank = new int[productCount];
+        for (int i = 0; i < productCount; i++) {
+            productByRank[i] = catalog.findProduct(names[i], categories[i]).getId();
+        }
+        for (int i = productCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = productByRank[i];
+            productByRank[i] = productByRank[j];
+            productByRank[j] = swap;
+        }
+
+        // Names and categories are looked up by catalog id from here on
+        String[] namesById = new String[productCount];
+        String[] categoriesById = new String[productCount];
+        for (int i = 0; i < productCount; i++) {
+            Product product = catalog.findProduct(names[i], categories[i]);
+            namesById[product.getId()] = names[i];
+            categoriesById[product.getId()] = categories[i];
+        }
+        names = namesById;
+        categories = categoriesById;
+
+        popularity = new double[productCount];
+        double total = 0;
+        for (int rank = 0; rank < productCount; rank++) {
+            total += 1.0 / Math.pow(rank + 1, zipfExponent);
+            popularity[rank] = total;
+        }
+        for (int rank = 0; rank < productCount; rank++) {
+            popularity[rank] /= total;
+        }
+    }
+
+    private int nextProduct(SplittableRandom random) {
+        int rank = Arrays.binarySearch(popularity, random.nextDouble());
+        if (rank < 0) {
+            rank = -rank - 1;
+        }
+        return productByRank[Math.min(rank, productCount - 1)];
+    }
+
+    private static String cashierName(int cashier) {
+        return "loadcashier" + cashier;
+    }
+
+    private static String cashierPassword(int cashier) {
+        return "load-password-" + cashier;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        File directory = new File("loadtest");
+        int products = 100_000;
+        int cashiers = 8;
+        int seconds = 30;
+        double zipf = 1.1;
+        int stock = 200;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--dir":
+                        directory = new File(value);
+                        break;
+                    case "--products":
+                        products = Integer.parseInt(value);
+                        break;
+                    case "--cashiers":
+                        cashiers = Integer.parseInt(value);
+                        break;
+                    case "--seconds":
+                        seconds = Integer.parseInt(value);
+                        break;
+                    case "--zipf":
+                        zipf = Double.parseDouble(value);
+                        break;
+                    case "--stock":
+                        stock = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Usage: java com.pawsshop.LoadGenerator [--dir loadtest] [--products 100000] [--cashiers 8]");
+            System.out.println("                                       [--seconds 30] [--zipf 1.1] [--stock 200]");
+            return;
+        }
+        new LoadGenerator(directory, products, cashiers, seconds, zipf, stock).run();
+    }
+}
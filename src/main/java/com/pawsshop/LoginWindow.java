@@ -1,8 +1,8 @@
+package com.pawsshop;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 
 public class LoginWindow extends JFrame {
@@ -131,6 +131,10 @@ public class LoginWindow extends JFrame {
 
         String role = validateCredentials(username, password);
         if (role != null) {
+            if (UserDirectory.getInstance().isPasswordExpired(username) && !changeExpiredPassword(username, password)) {
+                return;
+            }
+            Session.start(username, role);
             showMessage("Login Successful as " + role, "Success", JOptionPane.INFORMATION_MESSAGE);
             new DashboardWindow(role).setVisible(true);
             dispose();
@@ -140,18 +144,39 @@ public class LoginWindow extends JFrame {
     }
 
     private String validateCredentials(String username, String password) {
-        try (BufferedReader reader = new BufferedReader(new FileReader("credentials.txt"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] credentials = line.split(",");
-                if (credentials.length == 3 && credentials[0].equals(username) && credentials[1].equals(password)) {
-                    return credentials[2]; // Return the role (Manager or Cashier)
+        // Returns the role (Manager or Cashier), or null if no valid credentials are found
+        return UserDirectory.getInstance().authenticate(username, password);
+    }
+
+    // Asks for a new password until a valid one is saved; returns false if the user cancels
+    private boolean changeExpiredPassword(String username, String oldPassword) {
+        JPasswordField newPasswordField = new JPasswordField();
+        JPasswordField confirmPasswordField = new JPasswordField();
+        Object[] fields = {"Your password has to be changed before you continue.", "New password:", newPasswordField,
+                "Confirm new password:", confirmPasswordField};
+        while (true) {
+            int choice = JOptionPane.showConfirmDialog(this, fields, "Change Password", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+            if (choice != JOptionPane.OK_OPTION) {
+                return false;
+            }
+            String newPassword = new String(newPasswordField.getPassword()).trim();
+            if (newPassword.isEmpty() || newPassword.equals(oldPassword)) {
+                showMessage("Please enter a new password that differs from the old one", "Error", JOptionPane.ERROR_MESSAGE);
+            } else if (!newPassword.equals(new String(confirmPasswordField.getPassword()).trim())) {
+                showMessage("Passwords do not match!", "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                try {
+                    UserDirectory.getInstance().changePassword(username, newPassword);
+                    return true;
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    showMessage("Failed to save the new password!", "Error", JOptionPane.ERROR_MESSAGE);
+                    return false;
                 }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            newPasswordField.setText("");
+            confirmPasswordField.setText("");
         }
-        return null; // Return null if no valid credentials are found
     }
 
     private void showMessage(String message, String title, int messageType) {
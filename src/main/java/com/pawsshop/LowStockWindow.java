@@ -0,0 +1,149 @@
+package com.pawsshop;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// The most urgent SKUs to reorder, taken from the catalog's StockAlerts without scanning the catalog.
+// Refreshed when a product drops below its threshold and every few seconds, as days of cover
+// move with each sale.
+public class LowStockWindow extends JDialog {
+    private static final Color BACKGROUND_COLOR = new Color(240, 248, 255); // Alice Blue
+    private static final int SHOWN_SKUS = 20;
+    private static final int REFRESH_MILLIS = 2000;
+
+    private final StockAlerts alerts = ProductCatalog.getInstance().getStockAlerts();
+    private final LowStockTableModel tableModel = new LowStockTableModel();
+    private final JTable table = new JTable(tableModel);
+    private final JLabel countLabel = new JLabel();
+    private final Timer refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+    private final Consumer<Product> alertListener = product -> SwingUtilities.invokeLater(this::refresh);
+
+    private class LowStockTableModel extends AbstractTableModel {
+        private final String[] columns = {"Product Name", "Category", "Stock", "Reorder At", "Days of Cover"};
+        private List<Product> products = new ArrayList<>();
+
+        void setProducts(List<Product> products) {
+            this.products = products;
+            fireTableDataChanged();
+        }
+
+        Product getProductAt(int row) {
+            return products.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return products.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            Product product = products.get(row);
+            switch (column) {
+                case 0:
+                    return product.getName();
+                case 1:
+                    return product.getCategory();
+                case 2:
+                    return product.getStockQuantity();
+                case 3:
+                    return alerts.getThreshold(product);
+                default:
+                    double days = alerts.getDaysOfCover(product);
+                    return Double.isInfinite(days) ? "no recent sales" : String.format("%.1f", days);
+            }
+        }
+    }
+
+    public LowStockWindow(Frame owner) {
+        super(owner, "Low Stock - The Paws Shop", false);
+        setSize(700, 420);
+        setLocationRelativeTo(owner);
+        setLayout(new BorderLayout());
+        getContentPane().setBackground(BACKGROUND_COLOR);
+
+        table.setRowHeight(24);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JButton thresholdButton = new JButton("Set Reorder Threshold...");
+        thresholdButton.addActionListener(e -> setThreshold());
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.setBackground(BACKGROUND_COLOR);
+        bottomPanel.setBorder(BorderFactory.createEmptyBorder(8, 10, 8, 10));
+        bottomPanel.add(countLabel, BorderLayout.CENTER);
+        bottomPanel.add(thresholdButton, BorderLayout.EAST);
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        alerts.addListener(alertListener);
+        refresh();
+        refreshTimer.start();
+    }
+
+    private void refresh() {
+        tableModel.setProducts(alerts.getMostUrgent(SHOWN_SKUS));
+        countLabel.setText(alerts.getLowStockCount() + " products at or below their reorder threshold (default "
+                + StockAlerts.DEFAULT_THRESHOLD + ")");
+    }
+
+    // Changes the threshold of the selected product, or of a product entered by name and category
+    private void setThreshold() {
+        Product product = null;
+        int row = table.getSelectedRow();
+        if (row >= 0) {
+            product = tableModel.getProductAt(row);
+        } else {
+            String name = JOptionPane.showInputDialog(this, "Product name:");
+            if (name == null) {
+                return;
+            }
+            String category = JOptionPane.showInputDialog(this, "Category:");
+            if (category == null) {
+                return;
+            }
+            product = ProductCatalog.getInstance().findProduct(name.trim(), category.trim());
+            if (product == null) {
+                JOptionPane.showMessageDialog(this, "Product not found!", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+
+        String input = JOptionPane.showInputDialog(this, "Reorder threshold for " + product.getName() + ":", alerts.getThreshold(product));
+        if (input == null) {
+            return;
+        }
+        try {
+            alerts.setThreshold(product, Integer.parseInt(input.trim()));
+            refresh();
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "Please enter a whole number!", "Error", JOptionPane.ERROR_MESSAGE);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        } catch (IOException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Failed to save the reorder threshold!", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        refreshTimer.stop();
+        alerts.removeListener(alertListener);
+        super.dispose();
+    }
+}
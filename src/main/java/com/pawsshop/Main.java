@@ -0,0 +1,27 @@
+package com.pawsshop;
+
+import java.io.IOException;
+
+public class Main {
+
+    public static void main(String[] args) {
+        // Load the shared product catalog and user directory in the background while the user logs in
+        new Thread(ProductCatalog::getInstance).start();
+        new Thread(UserDirectory::getInstance).start();
+
+        // Pick up product and credential files changed by other programs, such as the supplier sync job
+        new Thread(() -> {
+            try {
+                DataFileWatcher.watchSharedFiles();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }).start();
+
+        // Launch the login window (GUI interface)
+        new Thread(() -> {
+            new LoginWindow().setVisible(true);
+        }).start();
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.pawsshop;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Process-wide latency histograms and counters for the operations that matter at the till.
+// They are registered as JMX MBeans under com.pawsshop (e.g. with jconsole) and shown on the
+// diagnostics panel of the manager dashboard.
+public final class Metrics {
+    public static final LatencyHistogram CATALOG_LOAD = new LatencyHistogram("CatalogLoad");
+    public static final LatencyHistogram SEARCH_QUERY = new LatencyHistogram("SearchQuery");
+    public static final LatencyHistogram FUZZY_SEARCH = new LatencyHistogram("FuzzySearch");
+    public static final LatencyHistogram CART_ADD = new LatencyHistogram("CartAdd");
+    public static final LatencyHistogram CHECKOUT_COMMIT = new LatencyHistogram("CheckoutCommit");
+    public static final LatencyHistogram PERSISTENCE = new LatencyHistogram("Persistence"); // One write + force of a journal batch
+    public static final LatencyHistogram LOGIN = new LatencyHistogram("Login");
+
+    public static final Counter CHECKOUTS = new Counter("Checkouts");
+    public static final Counter CHECKOUTS_REJECTED = new Counter("CheckoutsRejected"); // Not enough stock
+    public static final Counter UNITS_SOLD = new Counter("UnitsSold");
+    public static final Counter LOGINS_FAILED = new Counter("LoginsFailed");
+
+    private static final List<LatencyHistogram> HISTOGRAMS = Collections.unmodifiableList(Arrays.asList(
+            CATALOG_LOAD, SEARCH_QUERY, FUZZY_SEARCH, CART_ADD, CHECKOUT_COMMIT, PERSISTENCE, LOGIN));
+    private static final List<Counter> COUNTERS = Collections.unmodifiableList(Arrays.asList(
+            CHECKOUTS, CHECKOUTS_REJECTED, UNITS_SOLD, LOGINS_FAILED));
+
+    static {
+        registerMBeans();
+    }
+
+    private Metrics() {
+    }
+
+    public static List<LatencyHistogram> getHistograms() {
+        return HISTOGRAMS;
+    }
+
+    public static List<Counter> getCounters() {
+        return COUNTERS;
+    }
+
+    private static void registerMBeans() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (LatencyHistogram histogram : HISTOGRAMS) {
+                ObjectName name = new ObjectName("com.pawsshop:type=Latency,name=" + histogram.getName());
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(histogram, name);
+                }
+            }
+            for (Counter counter : COUNTERS) {
+                ObjectName name = new ObjectName("com.pawsshop:type=Counter,name=" + counter.getName());
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(counter, name);
+                }
+            }
+        } catch (JMException e) {
+            e.printStackTrace(); // Metrics are still recorded and shown on the diagnostics panel
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.pawsshop;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Prices and totals are kept as long cents everywhere; this class converts them to and from text.
+// Formatting only happens when a value is shown or written out.
+public final class Money {
+
+    private Money() {
+    }
+
+    // Parses a decimal amount such as "12.5" or "$3.99" into cents, rounding half up to whole cents
+    public static long parse(String text) {
+        String amount = text.trim();
+        if (amount.startsWith("$")) {
+            amount = amount.substring(1).trim();
+        }
+        try {
+            return new BigDecimal(amount).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+
+    // 1250 -> "12.50"
+    public static String format(long cents) {
+        StringBuilder text = new StringBuilder(12);
+        if (cents < 0) {
+            text.append('-');
+        }
+        long absolute = Math.abs(cents);
+        long fraction = absolute % 100;
+        text.append(absolute / 100).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction).toString();
+    }
+
+    // 1250 -> "$12.50"
+    public static String formatWithSymbol(long cents) {
+        return cents < 0 ? "-$" + format(-cents) : "$" + format(cents);
+    }
+}
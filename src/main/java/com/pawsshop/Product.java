@@ -0,0 +1,107 @@
+package com.pawsshop;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+// One compact object per SKU, shared by every screen. The category is kept as an id into
+// CategoryDictionary instead of a String of its own.
+public class Product {
+    // Stock is shared by every till in the process and changed with compare-and-set, without locks
+    private static final AtomicIntegerFieldUpdater<Product> STOCK =
+            AtomicIntegerFieldUpdater.newUpdater(Product.class, "stockQuantity");
+    private static final AtomicLongFieldUpdater<Product> SALES_SCORE =
+            AtomicLongFieldUpdater.newUpdater(Product.class, "salesScoreBits");
+
+    public static final int DEFAULT_REORDER_THRESHOLD = -1; // Use the shop-wide threshold, see StockAlerts
+
+    private int id = -1; // Position in the catalog, assigned when the product is added to it
+    private final String name;
+    private final int categoryId;
+    private volatile long priceCents; // Price in cents, see Money
+    private volatile int stockQuantity;
+    private volatile int reorderThreshold = DEFAULT_REORDER_THRESHOLD;
+    private volatile long salesScoreBits; // Decayed units sold as double bits, maintained by StockAlerts
+
+    // Constructor
+    public Product(String name, String category, long priceCents, int stockQuantity) {
+        this(name, CategoryDictionary.intern(category), priceCents, stockQuantity);
+    }
+
+    Product(String name, int categoryId, long priceCents, int stockQuantity) {
+        this.name = name;
+        this.categoryId = categoryId;
+        this.priceCents = priceCents;
+        this.stockQuantity = stockQuantity;
+    }
+
+    // Getters
+    public int getId() {
+        return id;
+    }
+    public String getName() {
+        return name;
+    }
+    public String getCategory() {
+        return CategoryDictionary.name(categoryId);
+    }
+    public int getCategoryId() {
+        return categoryId;
+    }
+    public long getPriceCents() {
+        return priceCents;
+    }
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+    // Stock level at or below which the product needs reordering, or DEFAULT_REORDER_THRESHOLD
+    public int getReorderThreshold() {
+        return reorderThreshold;
+    }
+
+    // Updates used by the catalog when supplies are added, restocked or sold
+    void setId(int id) {
+        this.id = id;
+    }
+    void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
+    }
+    void setStockQuantity(int stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+    void setReorderThreshold(int reorderThreshold) {
+        this.reorderThreshold = reorderThreshold;
+    }
+    double getSalesScore() {
+        return Double.longBitsToDouble(salesScoreBits);
+    }
+    void addSalesScore(double delta) {
+        long current;
+        do {
+            current = salesScoreBits;
+        } while (!SALES_SCORE.compareAndSet(this, current, Double.doubleToRawLongBits(Double.longBitsToDouble(current) + delta)));
+    }
+    void addStock(int quantity) {
+        STOCK.getAndAdd(this, quantity);
+    }
+    // Takes the quantity out of stock only if enough is left, so stock never goes negative
+    boolean tryReduceStock(int quantity) {
+        int current;
+        do {
+            current = stockQuantity;
+            if (current < quantity) {
+                return false;
+            }
+        } while (!STOCK.compareAndSet(this, current, current - quantity));
+        return true;
+    }
+    // Takes up to the quantity out of stock without going below zero, returns the units taken
+    int takeStock(int quantity) {
+        int current;
+        int taken;
+        do {
+            current = stockQuantity;
+            taken = Math.min(current, quantity);
+        } while (taken > 0 && !STOCK.compareAndSet(this, current, current - taken));
+        return Math.max(taken, 0);
+    }
+}
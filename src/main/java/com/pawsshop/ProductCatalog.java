@@ -0,0 +1,491 @@
+package com.pawsshop;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// Process-wide product catalog. product_data.txt is parsed once and every window
+// works on the same in-memory products instead of re-reading the file.
+// Changes are appended to a stock journal and folded into a new snapshot of
+// product_data.txt by a background compaction once the journal grows too large.
+// If product_data.bin exists it is used as the snapshot instead (see BinaryCatalogFile).
+// Edits made to the snapshot by other programs are merged in row by row (see applyExternalChanges).
+public class ProductCatalog {
+    private static final String FILE_PATH = "product_data.txt";
+    private static final String BINARY_FILE_PATH = "product_data.bin";
+
+    // Journal size in bytes that triggers a background compaction
+    private static final long COMPACT_THRESHOLD_BYTES = Long.getLong("paws.journal.compactBytes", 1024 * 1024);
+
+    private static ProductCatalog instance;
+
+    private final File dataFile;
+    private final List<Product> products = new ArrayList<>();
+    private final CategoryRegistry categories = new CategoryRegistry();
+    private final Map<SkuKey, Product> skuIndex = new ConcurrentHashMap<>(); // (name, category) -> product, read without locking
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    private final ProductSortIndex sortIndex = new ProductSortIndex();
+    private final StockJournal journal;
+    private final StockAlerts alerts;
+    private final Object compactionLock = new Object();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Consumer<List<Product>>> changeListeners = new CopyOnWriteArrayList<>();
+    private Map<SkuKey, Product> fileRows = new HashMap<>(); // Rows of the snapshot file as last read or written
+    private IOException loadError;
+    private List<CatalogCsvLoader.MalformedLine> malformedLines = Collections.emptyList();
+
+    public ProductCatalog(File dataFile) {
+        this.dataFile = dataFile;
+        this.journal = new StockJournal(new File(dataFile.getPath() + ".journal"));
+        this.alerts = new StockAlerts(new File(dataFile.getAbsoluteFile().getParentFile(), "reorder_thresholds.txt"));
+    }
+
+    // Returns the shared catalog, loading it from disk on first use
+    public static synchronized ProductCatalog getInstance() {
+        if (instance == null) {
+            File binaryFile = new File(BINARY_FILE_PATH);
+            ProductCatalog catalog = new ProductCatalog(binaryFile.exists() ? binaryFile : new File(FILE_PATH));
+            catalog.load();
+            instance = catalog;
+        }
+        return instance;
+    }
+
+    public synchronized void load() {
+        long started = System.nanoTime();
+        products.clear();
+        categories.clear();
+        alerts.clear();
+        skuIndex.clear();
+        searchIndex.clear();
+        sortIndex.clear();
+        loadError = null;
+        malformedLines = Collections.emptyList();
+        fileRows = new HashMap<>();
+
+        try {
+            if (dataFile.exists() && BinaryCatalogFile.isBinaryCatalog(dataFile)) {
+                for (Product product : BinaryCatalogFile.read(dataFile)) {
+                    addProduct(product);
+                }
+            } else if (dataFile.exists()) {
+                // Parsed in parallel chunks, products arrive in file order
+                CatalogCsvLoader.Result result = new CatalogCsvLoader().load(dataFile);
+                for (Product product : result.getProducts()) {
+                    addProduct(product);
+                }
+                malformedLines = result.getMalformedLines();
+                for (CatalogCsvLoader.MalformedLine malformedLine : malformedLines) {
+                    System.err.println(dataFile + ": skipped malformed line at " + malformedLine);
+                }
+            }
+            fileRows = copyRows(products);
+
+            // Apply the changes made since the snapshot was written
+            journal.replay(this::applyJournalRecord);
+            alerts.loadThresholds(this);
+        } catch (IOException e) {
+            e.printStackTrace();
+            loadError = e;
+        }
+        Metrics.CATALOG_LOAD.recordSince(started);
+    }
+
+    // The snapshot file the catalog was loaded from
+    public File getDataFile() {
+        return dataFile;
+    }
+
+    // Error raised by the last load, or null if the file was read successfully
+    public synchronized IOException getLoadError() {
+        return loadError;
+    }
+
+    // Lines of the snapshot that could not be parsed by the last load, with their byte offsets
+    public synchronized List<CatalogCsvLoader.MalformedLine> getMalformedLines() {
+        return malformedLines;
+    }
+
+    // Read-only copy of every product in file order, taken under the catalog lock so later
+    // additions never change it while the caller iterates
+    public synchronized List<Product> getProducts() {
+        return Collections.unmodifiableList(new ArrayList<>(products));
+    }
+
+    // Categories of the products in the catalog, in order of first appearance
+    public List<String> getCategories() {
+        return categories.getCategories();
+    }
+
+    // Posting lists, live counts and new-category notifications per category
+    public CategoryRegistry getCategoryRegistry() {
+        return categories;
+    }
+
+    // Products in one category in catalog order (empty if the category is unknown)
+    public synchronized List<Product> getProductsInCategory(String category) {
+        int[] ids = categories.getProductIds(category);
+        List<Product> categoryProducts = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            categoryProducts.add(products.get(id));
+        }
+        return categoryProducts;
+    }
+
+    // Product with the given id (its position in getProducts())
+    public synchronized Product getProduct(int id) {
+        return products.get(id);
+    }
+
+    // Low-stock SKUs ordered by days of cover, and their reorder thresholds
+    public StockAlerts getStockAlerts() {
+        return alerts;
+    }
+
+    // Name index kept up to date as products are added
+    public ProductSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    // Sorts product ids, such as a search result, by one column through the maintained sort orders
+    public synchronized int[] sortProductIds(int[] ids, ProductSortIndex.Column column, boolean ascending) {
+        return sortIndex.sort(products, ids, column, ascending);
+    }
+
+    // O(1) lookup by primary key, or null if no product has this (name, category)
+    public Product findProduct(String name, String category) {
+        if (name == null || category == null) {
+            return null;
+        }
+        return skuIndex.get(new SkuKey(name, category));
+    }
+
+    // Adds a new product, or tops up the stock and updates the price of an existing one,
+    // and records the change in the journal. Returns true when an existing product was updated.
+    public synchronized boolean addOrRestock(String name, String category, long priceCents, int quantity) throws IOException {
+        Product product = findProduct(name, category);
+        boolean productExists = product != null;
+        if (productExists) {
+            product.setPriceCents(priceCents);
+            product.addStock(quantity);
+            categories.adjustStock(product, quantity);
+            alerts.onStockChanged(product);
+        } else {
+            product = new Product(name, category, priceCents, quantity);
+            addProduct(product);
+        }
+        commit(Collections.singletonList(product));
+        return productExists;
+    }
+
+    // Restocks the catalog with a whole delivery, with the same (name, category) rules as addOrRestock.
+    // The delivery must be sorted by name then category with at most one row per product; it is
+    // merge-joined with the catalog's name order in one pass, and every changed product is recorded
+    // with one journal append before the lock is released. Returns how many products were new.
+    public int restockAll(List<Product> delivery) throws IOException {
+        List<Product> restocked = new ArrayList<>();
+        List<Product> added = new ArrayList<>();
+        List<Product> changed = new ArrayList<>();
+        synchronized (this) {
+            int[] nameOrder = sortIndex.order(products, ProductSortIndex.Column.NAME);
+            int cursor = 0;
+            for (Product row : delivery) {
+                while (cursor < nameOrder.length && ProductSortIndex.compareNames(products.get(nameOrder[cursor]).getName(), row.getName()) < 0) {
+                    cursor++;
+                }
+                // Products with the same name sit next to each other, usually only one
+                Product product = null;
+                for (int i = cursor; i < nameOrder.length && products.get(nameOrder[i]).getName().equals(row.getName()); i++) {
+                    if (products.get(nameOrder[i]).getCategoryId() == row.getCategoryId()) {
+                        product = products.get(nameOrder[i]);
+                        break;
+                    }
+                }
+                if (product != null) {
+                    product.setPriceCents(row.getPriceCents());
+                    product.addStock(row.getStockQuantity());
+                    categories.adjustStock(product, row.getStockQuantity());
+                    alerts.onStockChanged(product);
+                    restocked.add(product);
+                } else {
+                    Product newProduct = new Product(row.getName(), row.getCategoryId(), row.getPriceCents(), row.getStockQuantity());
+                    addProduct(newProduct);
+                    added.add(newProduct);
+                }
+            }
+            changed.addAll(restocked);
+            changed.addAll(added);
+            // The compaction this schedules once the journal is large folds the delivery into the catalog file
+            commit(changed);
+        }
+
+        if (!changed.isEmpty()) {
+            for (Consumer<List<Product>> listener : changeListeners) {
+                listener.accept(changed);
+            }
+        }
+        return added.size();
+    }
+
+    // Applies a sale: all SKUs are taken out of stock or none are, then the changed products
+    // are recorded with one journal append. Sales do not take the catalog lock, so tills run in
+    // parallel; a compaction running at the same time cannot lose the record (see compact).
+    public CheckoutResult sell(Map<Product, Integer> quantities) throws IOException {
+        long started = System.nanoTime();
+        // Marked before the stock moves as well as after, so a sort in between already re-sorts these products
+        sortIndex.markChanged(quantities.keySet());
+        CheckoutResult result = StockLedger.reserve(quantities);
+        if (!result.isSuccess()) {
+            Metrics.CHECKOUTS_REJECTED.increment();
+            return result;
+        }
+        try {
+            commit(quantities.keySet());
+        } catch (IOException e) {
+            StockLedger.release(quantities); // The sale was not recorded, give the stock back
+            sortIndex.markChanged(quantities.keySet());
+            throw e;
+        }
+        Metrics.CHECKOUT_COMMIT.recordSince(started);
+        Metrics.CHECKOUTS.increment();
+        for (Map.Entry<Product, Integer> entry : quantities.entrySet()) {
+            categories.adjustStock(entry.getKey(), -entry.getValue());
+            alerts.onSale(entry.getKey(), entry.getValue());
+            Metrics.UNITS_SOLD.add(entry.getValue());
+        }
+        return result;
+    }
+
+    // Appends the current state of the changed products to the journal.
+    // The cost depends on the number of changed products, not on the size of the catalog.
+    // Stock is read while the journal is locked, so the last record for a SKU always holds
+    // a value that includes every decrement made before it, even with concurrent tills.
+    public void commit(Collection<Product> changedProducts) throws IOException {
+        journal.append(changedProducts);
+        sortIndex.markChanged(changedProducts);
+        if (journal.size() >= COMPACT_THRESHOLD_BYTES && compactionScheduled.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    // Writes a new snapshot of the catalog file and drops the journal records it covers.
+    // Only capturing the snapshot blocks other catalog users and journal appends, the file is
+    // written outside the locks.
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            List<Product> snapshot;
+            synchronized (this) {
+                // Copied under the journal lock: a sale that changes stock after its product was
+                // copied cannot have its record rotated away with the journal the snapshot replaces
+                snapshot = journal.rotate(() -> {
+                    List<Product> copies = new ArrayList<>(products.size());
+                    for (Product product : products) {
+                        copies.add(new Product(product.getName(), product.getCategoryId(), product.getPriceCents(), product.getStockQuantity()));
+                    }
+                    return copies;
+                });
+            }
+            if (BinaryCatalogFile.isBinaryCatalog(dataFile)) {
+                BinaryCatalogFile.write(dataFile, snapshot);
+            } else {
+                writeCsv(dataFile, snapshot);
+            }
+            journal.deleteRotated();
+            synchronized (this) {
+                fileRows = copyRows(snapshot);
+            }
+        }
+    }
+
+    // Merges a snapshot file changed by another program, such as the supplier sync job, into the
+    // catalog and returns the products that changed. Only rows that differ from the file as it was
+    // last read or written are applied: their price replaces ours, and the change in their stock
+    // is added to ours, so sales made since the snapshot are kept. New rows become new products.
+    // Rows that disappeared are left alone, the catalog has no way to remove a product.
+    // The changes are journalled, and the catalog's own snapshot writes come out as no change.
+    public List<Product> applyExternalChanges() throws IOException {
+        synchronized (compactionLock) {
+            if (!dataFile.exists()) {
+                return Collections.emptyList();
+            }
+            List<Product> rows;
+            if (BinaryCatalogFile.isBinaryCatalog(dataFile)) {
+                rows = BinaryCatalogFile.read(dataFile);
+            } else {
+                CatalogCsvLoader.Result result = new CatalogCsvLoader().load(dataFile);
+                rows = result.getProducts();
+                for (CatalogCsvLoader.MalformedLine malformedLine : result.getMalformedLines()) {
+                    System.err.println(dataFile + ": skipped malformed line at " + malformedLine);
+                }
+            }
+            Map<SkuKey, Product> newRows = copyRows(rows);
+
+            List<Product> changed = new ArrayList<>();
+            synchronized (this) {
+                for (Map.Entry<SkuKey, Product> entry : newRows.entrySet()) {
+                    Product row = entry.getValue();
+                    Product previous = fileRows.get(entry.getKey());
+                    if (previous != null && previous.getPriceCents() == row.getPriceCents()
+                            && previous.getStockQuantity() == row.getStockQuantity()) {
+                        continue;
+                    }
+                    Product product = skuIndex.get(entry.getKey());
+                    if (product == null) {
+                        product = new Product(row.getName(), row.getCategoryId(), row.getPriceCents(), row.getStockQuantity());
+                        addProduct(product);
+                    } else {
+                        // A row the file did not have before takes over the stock as it is
+                        int delta = row.getStockQuantity() - (previous != null ? previous.getStockQuantity() : product.getStockQuantity());
+                        if (delta >= 0) {
+                            product.addStock(delta);
+                        } else {
+                            delta = -product.takeStock(-delta);
+                        }
+                        product.setPriceCents(row.getPriceCents());
+                        categories.adjustStock(product, delta);
+                        alerts.onStockChanged(product);
+                    }
+                    changed.add(product);
+                }
+                // Keep the last known state of rows that went missing, a half-written file must not reset them
+                for (Map.Entry<SkuKey, Product> entry : fileRows.entrySet()) {
+                    newRows.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+                fileRows = newRows;
+            }
+
+            if (!changed.isEmpty()) {
+                commit(changed);
+                for (Consumer<List<Product>> listener : changeListeners) {
+                    listener.accept(changed);
+                }
+            }
+            return changed;
+        }
+    }
+
+    // The listener is called with the products changed by applyExternalChanges or restockAll,
+    // on the thread that changed them
+    public void addChangeListener(Consumer<List<Product>> listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(Consumer<List<Product>> listener) {
+        changeListeners.remove(listener);
+    }
+
+    // Detached copies of file rows by primary key, duplicate rows merged the way load() merges them
+    private static Map<SkuKey, Product> copyRows(List<Product> rows) {
+        Map<SkuKey, Product> copies = new HashMap<>(rows.size() * 2);
+        for (Product row : rows) {
+            Product copy = copies.get(SkuKey.of(row));
+            if (copy == null) {
+                copies.put(SkuKey.of(row), new Product(row.getName(), row.getCategoryId(), row.getPriceCents(), row.getStockQuantity()));
+            } else {
+                copy.setPriceCents(row.getPriceCents());
+                copy.addStock(row.getStockQuantity());
+            }
+        }
+        return copies;
+    }
+
+    // Line format shared by product_data.txt and the stock journal
+    static String formatRecord(Product product) {
+        return product.getName() + "," + product.getCategory() + "," + Money.format(product.getPriceCents()) + "," + product.getStockQuantity();
+    }
+
+    // Parses one name,category,price,stock line, or returns null if it is malformed.
+    // The fields are taken from the right, so a comma inside the product name is kept.
+    static Product parseRecord(String line) {
+        int stockStart = line.lastIndexOf(',');
+        int priceStart = stockStart > 0 ? line.lastIndexOf(',', stockStart - 1) : -1;
+        int categoryStart = priceStart > 0 ? line.lastIndexOf(',', priceStart - 1) : -1;
+        if (categoryStart <= 0) {
+            return null;
+        }
+        try {
+            String name = line.substring(0, categoryStart).trim();
+            String category = line.substring(categoryStart + 1, priceStart).trim();
+            long priceCents = Money.parse(line.substring(priceStart + 1, stockStart));
+            int stockQuantity = Integer.parseInt(line.substring(stockStart + 1).trim());
+            return new Product(name, category, priceCents, stockQuantity);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Journal records carry the full product state, so they replace rather than add to it
+    private void applyJournalRecord(File journalFile, long offset, String line) {
+        Product record = parseRecord(line);
+        if (record == null) {
+            System.err.println(journalFile + ": skipped malformed line at " + new CatalogCsvLoader.MalformedLine(offset, line));
+            return;
+        }
+        Product existing = skuIndex.get(SkuKey.of(record));
+        if (existing != null) {
+            existing.setPriceCents(record.getPriceCents());
+            categories.adjustStock(existing, record.getStockQuantity() - existing.getStockQuantity());
+            existing.setStockQuantity(record.getStockQuantity());
+            alerts.onStockChanged(existing);
+        } else {
+            addProduct(record);
+        }
+    }
+
+    // Writes the products as product_data.txt lines to a temporary file and swaps it in,
+    // so a crash never leaves a half-written catalog
+    static void writeCsv(File file, List<Product> products) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
+            for (Product product : products) {
+                writer.write(formatRecord(product));
+                writer.newLine();
+            }
+        }
+        try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void addProduct(Product product) {
+        SkuKey key = SkuKey.of(product);
+        Product existing = skuIndex.get(key);
+        if (existing != null) {
+            // Duplicate rows in the file: keep one product and merge the stock into it
+            existing.setPriceCents(product.getPriceCents());
+            existing.addStock(product.getStockQuantity());
+            categories.adjustStock(existing, product.getStockQuantity());
+            alerts.onStockChanged(existing);
+            return;
+        }
+        product.setId(products.size());
+        products.add(product);
+        searchIndex.add(product);
+        categories.add(product);
+        alerts.onStockChanged(product);
+        skuIndex.put(key, product); // Published last, lock-free readers only see fully added products
+    }
+}
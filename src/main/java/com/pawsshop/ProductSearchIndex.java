@@ -0,0 +1,292 @@
+package com.pawsshop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntPredicate;
+
+// Trigram index over product names, ignoring case. A substring query only verifies the products
+// in the shortest posting list among its trigrams instead of every product in the catalog.
+// The index refers to the products' own name strings rather than keeping lower-cased copies.
+// The index is built once when the catalog loads and extended as products are added.
+// The same trigrams drive a typo-tolerant search, see fuzzySearch.
+public class ProductSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final List<String> names = new ArrayList<>(); // Indexed by product id
+    private final Map<Long, IntList> postings = new HashMap<>(); // Trigram -> ids of products containing it
+    private int version; // Bumped on every change, invalidates the cached result
+
+    // Previous query and its result, so a longer query typed on top of it is narrowed from it
+    private String lastQuery;
+    private int[] lastResult;
+    private int lastVersion = -1;
+
+    private int[] sharedGrams = new int[0]; // Per product id, reused by fuzzySearch and left all zero
+
+    public synchronized void add(Product product) {
+        int id = product.getId();
+        String name = product.getName();
+        while (names.size() <= id) {
+            names.add(null);
+        }
+        names.set(id, name);
+
+        for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+            IntList posting = postings.computeIfAbsent(gramKey(name, i), k -> new IntList(4));
+            if (posting.isEmpty() || posting.last() != id) {
+                posting.add(id);
+            }
+        }
+        version++;
+    }
+
+    public synchronized void clear() {
+        names.clear();
+        postings.clear();
+        lastResult = null;
+        version++;
+    }
+
+    // Ids of the products whose name contains the query (ignoring case), in ascending order.
+    // The returned array is shared with the cache and must not be modified.
+    // Throws CancellationException if the calling thread is interrupted while verifying candidates.
+    public synchronized int[] search(String query) {
+        String lowerQuery = toLowerCase(query);
+        int[] result;
+        if (lastResult != null && lastVersion == version && lowerQuery.equals(lastQuery)) {
+            return lastResult; // Same query again, e.g. the result is only being re-sorted
+        }
+        // The user kept typing: every match is in the previous result. The empty query matches
+        // everything, so its result is no better than scanning all ids.
+        boolean narrowing = lastResult != null && lastVersion == version && !lastQuery.isEmpty()
+                && lowerQuery.contains(lastQuery);
+        if (lowerQuery.isEmpty()) {
+            result = allIds();
+        } else if (lowerQuery.length() < GRAM_LENGTH) {
+            result = verify(narrowing ? lastResult : allIds(), lowerQuery);
+        } else {
+            IntList candidates = rarestPosting(lowerQuery);
+            if (candidates == null) {
+                result = new int[0];
+            } else if (narrowing && lastResult.length < candidates.size()) {
+                result = verify(lastResult, lowerQuery); // Narrow the previous result, it has fewer candidates
+            } else {
+                result = verify(candidates.toArray(), lowerQuery);
+            }
+        }
+        lastQuery = lowerQuery;
+        lastResult = result;
+        lastVersion = version;
+        return result;
+    }
+
+    // Up to limit ids of the products whose name contains the query with the fewest edits (insertions,
+    // deletions or substitutions, ignoring case), best match first. Queries of
+    // 6 characters allow 1 edit, 9 characters 2 and 12 or more 3; shorter queries find nothing.
+    //
+    // Candidates come from the trigram postings: a match with d edits still contains all but at most
+    // 3d of the query's trigrams, so a product sharing c of them needs at least (trigrams - c) / 3
+    // edits. Candidates are verified in order of shared trigrams, and verification stops as soon as
+    // that bound shows no remaining candidate can enter the top results. It also stops when the
+    // time budget is used up, returning the best matches found so far.
+    public synchronized int[] fuzzySearch(String query, int limit, long budgetNanos, IntPredicate accept) {
+        long deadline = System.nanoTime() + budgetNanos;
+        String lowerQuery = toLowerCase(query.trim());
+        int gramCount = lowerQuery.length() - GRAM_LENGTH + 1;
+        // At least one trigram must survive the edits, otherwise every product would be a candidate
+        int maxEdits = Math.min(3, (gramCount - 1) / GRAM_LENGTH);
+        if (maxEdits < 1 || limit <= 0) {
+            return new int[0];
+        }
+        int minShared = gramCount - GRAM_LENGTH * maxEdits;
+
+        // Count for every product how many trigram positions of the query its name contains
+        if (sharedGrams.length < names.size()) {
+            sharedGrams = new int[names.size()];
+        }
+        IntList candidates = new IntList(1024);
+        try {
+            for (int i = 0; i < gramCount && System.nanoTime() < deadline; i++) {
+                IntList posting = postings.get(gramKey(lowerQuery, i));
+                for (int j = 0; posting != null && j < posting.size(); j++) {
+                    if ((j & 0xFFF) == 0xFFF && System.nanoTime() >= deadline) {
+                        break;
+                    }
+                    int id = posting.get(j);
+                    if (sharedGrams[id]++ == 0) {
+                        candidates.add(id);
+                    }
+                }
+            }
+            return verifyFuzzy(candidates, gramCount, minShared, lowerQuery, maxEdits, limit, deadline, accept);
+        } finally {
+            for (int i = 0; i < candidates.size(); i++) {
+                sharedGrams[candidates.get(i)] = 0;
+            }
+        }
+    }
+
+    private int[] verifyFuzzy(IntList candidates, int gramCount, int minShared, String lowerQuery, int maxEdits,
+                              int limit, long deadline, IntPredicate accept) {
+        // Bucket the candidates by shared trigrams, most shared first
+        int[] bucketStarts = new int[gramCount + 2];
+        for (int i = 0; i < candidates.size(); i++) {
+            bucketStarts[gramCount - sharedGrams[candidates.get(i)] + 1]++;
+        }
+        for (int b = 0; b <= gramCount; b++) {
+            bucketStarts[b + 1] += bucketStarts[b];
+        }
+        int[] ordered = new int[candidates.size()];
+        int[] next = Arrays.copyOf(bucketStarts, bucketStarts.length);
+        for (int i = 0; i < candidates.size(); i++) {
+            int id = candidates.get(i);
+            ordered[next[gramCount - sharedGrams[id]]++] = id;
+        }
+
+        // Best matches so far as (edits << 32 | id), sorted ascending, so the last one is the worst
+        long[] best = new long[limit];
+        int bestCount = 0;
+        int[] column = new int[lowerQuery.length() + 1];
+        int verified = 0;
+        for (int shared = gramCount; shared >= minShared; shared--) {
+            int lowerBound = (gramCount - shared + GRAM_LENGTH - 1) / GRAM_LENGTH;
+            int bucket = gramCount - shared;
+            for (int i = bucketStarts[bucket]; i < bucketStarts[bucket + 1]; i++) {
+                if (bestCount == limit && (int) (best[limit - 1] >>> 32) <= lowerBound) {
+                    return ids(best, bestCount); // The top results can no longer change
+                }
+                if ((++verified & 0x3F) == 0 && System.nanoTime() > deadline) {
+                    return ids(best, bestCount);
+                }
+                int id = ordered[i];
+                if (accept != null && !accept.test(id)) {
+                    continue;
+                }
+                int bound = bestCount == limit ? (int) (best[limit - 1] >>> 32) : maxEdits;
+                int edits = substringEditDistance(names.get(id), lowerQuery, bound, column);
+                long match = (long) edits << 32 | id;
+                if (edits <= bound && (bestCount < limit || match < best[limit - 1])) {
+                    // Insert in order, dropping the worst match once the list is full
+                    int position = bestCount < limit ? bestCount++ : limit - 1;
+                    while (position > 0 && best[position - 1] > match) {
+                        best[position] = best[position - 1];
+                        position--;
+                    }
+                    best[position] = match;
+                }
+            }
+        }
+        return ids(best, bestCount);
+    }
+
+    private static int[] ids(long[] matches, int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = (int) matches[i];
+        }
+        return ids;
+    }
+
+    // Fewest edits that turn the query into some substring of the name (Sellers' algorithm), or
+    // bound + 1 if that takes more than bound edits. Only the rows of the dynamic programming column
+    // that can still stay within the bound are computed (Ukkonen's cut-off).
+    static int substringEditDistance(String name, String lowerQuery, int bound, int[] column) {
+        int queryLength = lowerQuery.length();
+        for (int i = 0; i <= queryLength; i++) {
+            column[i] = i;
+        }
+        int lastActive = Math.min(bound, queryLength); // Deepest row still within the bound
+        int best = lastActive == queryLength ? column[queryLength] : bound + 1;
+        for (int j = 0; j < name.length() && best > 0; j++) {
+            char c = Character.toLowerCase(name.charAt(j));
+            int diagonal = 0; // Row 0 is always 0, a match may start anywhere in the name
+            int rows = Math.min(lastActive + 1, queryLength);
+            for (int i = 1; i <= rows; i++) {
+                int left = i <= lastActive ? column[i] : bound + 1;
+                int value = Math.min(Math.min(left, column[i - 1]) + 1, diagonal + (lowerQuery.charAt(i - 1) == c ? 0 : 1));
+                diagonal = left;
+                column[i] = value;
+            }
+            lastActive = rows;
+            while (lastActive > 0 && column[lastActive] > bound) {
+                lastActive--;
+            }
+            if (lastActive == queryLength) {
+                best = Math.min(best, column[queryLength]);
+            }
+        }
+        return Math.min(best, bound + 1);
+    }
+
+    // Every match contains all trigrams of the query, so the rarest trigram gives the smallest candidate set.
+    // Returns null if some trigram occurs in no name, then nothing matches.
+    private IntList rarestPosting(String lowerQuery) {
+        IntList candidates = null;
+        for (int i = 0; i + GRAM_LENGTH <= lowerQuery.length(); i++) {
+            IntList posting = postings.get(gramKey(lowerQuery, i));
+            if (posting == null) {
+                return null;
+            }
+            if (candidates == null || posting.size() < candidates.size()) {
+                candidates = posting;
+            }
+        }
+        return candidates;
+    }
+
+    private int[] verify(int[] candidateIds, String lowerQuery) {
+        IntList matches = new IntList(Math.min(candidateIds.length, 1024));
+        for (int i = 0; i < candidateIds.length; i++) {
+            if ((i & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Search cancelled");
+            }
+            int id = candidateIds[i];
+            if (containsIgnoreCase(names.get(id), lowerQuery)) {
+                matches.add(id);
+            }
+        }
+        return matches.toArray();
+    }
+
+    private int[] allIds() {
+        int[] ids = new int[names.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        return ids;
+    }
+
+    // Lower-cases char by char, the same way names are compared, so query and index always agree
+    private static String toLowerCase(String text) {
+        char[] chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(text.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static boolean containsIgnoreCase(String name, String lowerQuery) {
+        int last = name.length() - lowerQuery.length();
+        for (int start = 0; start <= last; start++) {
+            int i = 0;
+            while (i < lowerQuery.length() && Character.toLowerCase(name.charAt(start + i)) == lowerQuery.charAt(i)) {
+                i++;
+            }
+            if (i == lowerQuery.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Trigram of the lower-cased text starting at the given position
+    private static long gramKey(String text, int start) {
+        return ((long) Character.toLowerCase(text.charAt(start)) << 32)
+                | ((long) Character.toLowerCase(text.charAt(start + 1)) << 16)
+                | Character.toLowerCase(text.charAt(start + 2));
+    }
+}
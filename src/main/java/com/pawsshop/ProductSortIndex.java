@@ -0,0 +1,302 @@
+package com.pawsshop;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+// Sort orders of the catalog by name, category, price and stock, kept as permutations of product
+// ids with the rank of every id. Sorting a search result only looks up the ranks of its ids, so a
+// click on a column header never compares products. An order is brought up to date when it is
+// next used: new products and products whose price or stock changed are merged back into it,
+// and it is rebuilt with a radix or counting sort only when most of it changed. Tills change
+// stock without the catalog lock, so prices and stock are read once per update, and an order
+// that a change without a mark yet has put out of sequence is rebuilt instead of merged into.
+public class ProductSortIndex {
+
+    public enum Column { NAME, CATEGORY, PRICE, STOCK }
+
+    private static class Order {
+        private int[] ids = new int[0]; // Product ids in sorted order
+        private int[] ranks = new int[0]; // Position of each product id in ids
+        private int covered; // Products with a smaller id are in ids
+        private final BitSet changed = new BitSet(); // Covered products whose sort key may have changed
+    }
+
+    private final Order[] orders = new Order[Column.values().length];
+
+    public ProductSortIndex() {
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new Order();
+        }
+    }
+
+    // Called by the catalog for every product whose price or stock was changed
+    synchronized void markChanged(Collection<Product> products) {
+        for (Product product : products) {
+            if (product.getId() >= 0) {
+                orders[Column.PRICE.ordinal()].changed.set(product.getId());
+                orders[Column.STOCK.ordinal()].changed.set(product.getId());
+            }
+        }
+    }
+
+    synchronized void clear() {
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new Order();
+        }
+    }
+
+    // Every product id sorted by the column. The array is shared and must not be modified.
+    synchronized int[] order(List<Product> products, Column column) {
+        return refresh(products, column).ids;
+    }
+
+    // Returns the ids (distinct ids of the given products) sorted by the column, ties in id order
+    synchronized int[] sort(List<Product> products, int[] ids, Column column, boolean ascending) {
+        Order order = refresh(products, column);
+        int[] sorted = new int[ids.length];
+        if (ids.length >= order.ids.length / 16) {
+            // Large result: walk the whole order once and keep the ids of the result
+            BitSet wanted = new BitSet(order.ids.length);
+            for (int id : ids) {
+                wanted.set(id);
+            }
+            int count = 0;
+            for (int id : order.ids) {
+                if (wanted.get(id)) {
+                    sorted[count++] = id;
+                }
+            }
+        } else {
+            // Small result: sort the ranks of its ids, plain ints
+            int[] ranks = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                ranks[i] = order.ranks[ids[i]];
+            }
+            Arrays.sort(ranks);
+            for (int i = 0; i < ranks.length; i++) {
+                sorted[i] = order.ids[ranks[i]];
+            }
+        }
+        if (!ascending) {
+            for (int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+                int id = sorted[i];
+                sorted[i] = sorted[j];
+                sorted[j] = id;
+            }
+        }
+        return sorted;
+    }
+
+    private Order refresh(List<Product> products, Column column) {
+        Order order = orders[column.ordinal()];
+        int size = products.size();
+        order.changed.clear(order.covered, Math.max(order.covered, order.changed.length())); // New products are merged in anyway
+        int changedCount = order.changed.cardinality();
+        if (order.covered == size && changedCount == 0) {
+            return order;
+        }
+
+        long[] keys = numericKeys(products, column);
+        if (order.covered == 0 || changedCount > size / 8) {
+            order.ids = build(products, column, keys);
+        } else {
+            // Take the changed products out, then merge them back in together with the new ones
+            int[] kept = new int[order.ids.length - changedCount];
+            int keptCount = 0;
+            for (int id : order.ids) {
+                if (!order.changed.get(id)) {
+                    kept[keptCount++] = id;
+                }
+            }
+            Comparator<Integer> comparator = comparator(products, column, keys);
+            if (isSorted(kept, comparator)) {
+                Integer[] inserted = new Integer[changedCount + size - order.covered];
+                int insertedCount = 0;
+                for (int id = order.changed.nextSetBit(0); id >= 0; id = order.changed.nextSetBit(id + 1)) {
+                    inserted[insertedCount++] = id;
+                }
+                for (int id = order.covered; id < size; id++) {
+                    inserted[insertedCount++] = id;
+                }
+                Arrays.sort(inserted, comparator);
+                order.ids = merge(kept, inserted, comparator);
+            } else {
+                order.ids = build(products, column, keys); // A sale moved stock before marking its product
+            }
+        }
+        order.changed.clear();
+        order.covered = size;
+
+        order.ranks = new int[size];
+        for (int i = 0; i < order.ids.length; i++) {
+            order.ranks[order.ids[i]] = i;
+        }
+        return order;
+    }
+
+    private static boolean isSorted(int[] ids, Comparator<Integer> comparator) {
+        for (int i = 1; i < ids.length; i++) {
+            if (comparator.compare(ids[i - 1], ids[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Each inserted id is placed by a binary search, the kept ids between them are copied in blocks
+    private static int[] merge(int[] kept, Integer[] inserted, Comparator<Integer> comparator) {
+        int[] merged = new int[kept.length + inserted.length];
+        int from = 0;
+        int k = 0;
+        for (Integer id : inserted) {
+            int low = from;
+            int high = kept.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (comparator.compare(kept[middle], id) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            System.arraycopy(kept, from, merged, k, low - from);
+            k += low - from;
+            merged[k++] = id;
+            from = low;
+        }
+        System.arraycopy(kept, from, merged, k, kept.length - from);
+        return merged;
+    }
+
+    // Sorts all products from scratch. Price and stock use a radix sort and category a counting sort,
+    // only names are compared; ties keep id order, the same order the comparator gives.
+    private static int[] build(List<Product> products, Column column, long[] keys) {
+        switch (column) {
+            case PRICE:
+            case STOCK:
+                return radixSort(keys);
+            case CATEGORY:
+                return countingSortByCategory(products);
+            default:
+                Integer[] ids = new Integer[products.size()];
+                for (int id = 0; id < ids.length; id++) {
+                    ids[id] = id;
+                }
+                Arrays.sort(ids, comparator(products, column, keys));
+                int[] sorted = new int[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    sorted[i] = ids[i];
+                }
+                return sorted;
+        }
+    }
+
+    private static int[] radixSort(long[] numericKeys) {
+        int size = numericKeys.length;
+        int[] ids = new int[size];
+        long[] keys = new long[size];
+        for (int id = 0; id < size; id++) {
+            ids[id] = id;
+            keys[id] = numericKeys[id] ^ Long.MIN_VALUE; // Negative values sort first
+        }
+        int[] idBuffer = new int[size];
+        long[] keyBuffer = new long[size];
+        int[] counts = new int[257];
+        for (int shift = 0; shift < 64 && size > 0; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (long key : keys) {
+                counts[(int) (key >>> shift & 0xFF) + 1]++;
+            }
+            if (counts[(int) (keys[0] >>> shift & 0xFF) + 1] == size) {
+                continue; // Every key has the same byte here, e.g. the high bytes of small numbers
+            }
+            for (int b = 0; b < 256; b++) {
+                counts[b + 1] += counts[b];
+            }
+            for (int i = 0; i < size; i++) {
+                int to = counts[(int) (keys[i] >>> shift & 0xFF)]++;
+                idBuffer[to] = ids[i];
+                keyBuffer[to] = keys[i];
+            }
+            int[] swappedIds = ids;
+            ids = idBuffer;
+            idBuffer = swappedIds;
+            long[] swappedKeys = keys;
+            keys = keyBuffer;
+            keyBuffer = swappedKeys;
+        }
+        return ids;
+    }
+
+    private static int[] countingSortByCategory(List<Product> products) {
+        // Rank the categories by name, there are only a handful of them
+        Integer[] categoryIds = new Integer[CategoryDictionary.size()];
+        for (int i = 0; i < categoryIds.length; i++) {
+            categoryIds[i] = i;
+        }
+        Arrays.sort(categoryIds, (a, b) -> compareNames(CategoryDictionary.name(a), CategoryDictionary.name(b)));
+        int[] categoryRank = new int[categoryIds.length];
+        for (int rank = 0; rank < categoryIds.length; rank++) {
+            categoryRank[categoryIds[rank]] = rank;
+        }
+
+        int[] starts = new int[categoryIds.length + 1];
+        for (Product product : products) {
+            starts[categoryRank[product.getCategoryId()] + 1]++;
+        }
+        for (int rank = 0; rank < categoryIds.length; rank++) {
+            starts[rank + 1] += starts[rank];
+        }
+        int[] sorted = new int[products.size()];
+        for (int id = 0; id < sorted.length; id++) {
+            sorted[starts[categoryRank[products.get(id).getCategoryId()]]++] = id;
+        }
+        return sorted;
+    }
+
+    // Price or stock of every product read once, or null for name and category, which never change
+    private static long[] numericKeys(List<Product> products, Column column) {
+        if (column != Column.PRICE && column != Column.STOCK) {
+            return null;
+        }
+        long[] keys = new long[products.size()];
+        for (int id = 0; id < keys.length; id++) {
+            keys[id] = numericKey(products.get(id), column);
+        }
+        return keys;
+    }
+
+    // Compares price and stock by the keys read for this update, not the live values
+    private static Comparator<Integer> comparator(List<Product> products, Column column, long[] keys) {
+        return (a, b) -> {
+            Product first = products.get(a);
+            Product second = products.get(b);
+            int result;
+            switch (column) {
+                case NAME:
+                    result = compareNames(first.getName(), second.getName());
+                    break;
+                case CATEGORY:
+                    result = compareNames(first.getCategory(), second.getCategory());
+                    break;
+                default:
+                    result = Long.compare(keys[a], keys[b]);
+                    break;
+            }
+            return result != 0 ? result : Integer.compare(a, b);
+        };
+    }
+
+    // Ignoring case first, so "bowl" sorts next to "Bowl"
+    static int compareNames(String first, String second) {
+        int result = String.CASE_INSENSITIVE_ORDER.compare(first, second);
+        return result != 0 ? result : first.compareTo(second);
+    }
+
+    private static long numericKey(Product product, Column column) {
+        return column == Column.PRICE ? product.getPriceCents() : product.getStockQuantity();
+    }
+}
@@ -0,0 +1,91 @@
+package com.pawsshop;
+
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+
+// Table model backed by an array of product ids. Cell values are read from the catalog
+// only when the table asks for them, which JTable does for the visible rows only.
+public class ProductTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"Product Name", "Category", "Price", "Stock Quantity", "Edit", "Delete"};
+    private static final Class<?>[] COLUMN_CLASSES = {String.class, String.class, Long.class, Integer.class, String.class, String.class};
+    private static final ProductSortIndex.Column[] SORT_COLUMNS = {ProductSortIndex.Column.NAME, ProductSortIndex.Column.CATEGORY,
+            ProductSortIndex.Column.PRICE, ProductSortIndex.Column.STOCK, null, null};
+
+    private final ProductCatalog catalog;
+    private int[] productIds = new int[0];
+
+    // Shows the cents in the Price column as a dollar amount
+    public static class PriceRenderer extends DefaultTableCellRenderer {
+        public PriceRenderer() {
+            setHorizontalAlignment(RIGHT);
+        }
+
+        @Override
+        protected void setValue(Object value) {
+            setText(value instanceof Long ? Money.formatWithSymbol((Long) value) : "");
+        }
+    }
+
+    public ProductTableModel(ProductCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    // Replaces the rows with the given products and fires a single table event
+    public void setProductIds(int[] productIds) {
+        this.productIds = productIds;
+        fireTableDataChanged();
+    }
+
+    // Sort order behind a model column, or null for the button columns
+    public static ProductSortIndex.Column getSortColumn(int column) {
+        return SORT_COLUMNS[column];
+    }
+
+    public Product getProductAt(int row) {
+        return catalog.getProduct(productIds[row]);
+    }
+
+    @Override
+    public int getRowCount() {
+        return productIds.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return COLUMN_CLASSES[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column >= 4; // Only the Edit and Delete buttons react to clicks
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Product product = getProductAt(row);
+        switch (column) {
+            case 0:
+                return product.getName();
+            case 1:
+                return product.getCategory();
+            case 2:
+                return product.getPriceCents(); // Shown through PriceRenderer
+            case 3:
+                return product.getStockQuantity();
+            case 4:
+                return "Edit";
+            default:
+                return "Delete";
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.pawsshop;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Summarises the transaction journal in parallel. The file is split into byte ranges that are
+// aggregated by fork/join tasks and merged. A range does not have to start on a record: its task
+// skips forward to the first offset holding a complete record whose CRC matches (and whose
+// successor does too), and it owns every record that starts inside the range. A damaged record
+// is skipped the same way, up to the next valid record, and the skipped bytes are reported.
+// Each task maps only its own range, so memory stays flat however long the history is.
+public class SalesReportEngine {
+    private static final long MIN_CHUNK_BYTES = 4L * 1024 * 1024;
+    private static final long MAX_CHUNK_BYTES = 1L << 30; // A single mapping must stay below 2 GB
+
+    private final ForkJoinPool pool;
+    private final ZoneId zone;
+
+    public SalesReportEngine() {
+        this(ForkJoinPool.commonPool(), ZoneId.systemDefault());
+    }
+
+    public SalesReportEngine(ForkJoinPool pool, ZoneId zone) {
+        this.pool = pool;
+        this.zone = zone;
+    }
+
+    public SalesSummary summarize(File journalFile) throws IOException {
+        if (!journalFile.exists()) {
+            return new SalesSummary(zone);
+        }
+        try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkBytes = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, size / (pool.getParallelism() * 4L) + 1));
+            return pool.invoke(new ChunkTask(channel, size, 0, size, chunkBytes));
+        }
+    }
+
+    private class ChunkTask extends RecursiveTask<SalesSummary> {
+        private final FileChannel channel;
+        private final long fileSize;
+        private final long start;
+        private final long end;
+        private final long chunkBytes;
+
+        ChunkTask(FileChannel channel, long fileSize, long start, long end, long chunkBytes) {
+            this.channel = channel;
+            this.fileSize = fileSize;
+            this.start = start;
+            this.end = end;
+            this.chunkBytes = chunkBytes;
+        }
+
+        @Override
+        protected SalesSummary compute() {
+            if (end - start > chunkBytes) {
+                long middle = start + (end - start) / 2;
+                ChunkTask left = new ChunkTask(channel, fileSize, start, middle, chunkBytes);
+                ChunkTask right = new ChunkTask(channel, fileSize, middle, end, chunkBytes);
+                right.fork();
+                return left.compute().merge(right.join());
+            }
+            try {
+                return summarizeRange();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read " + start + ".." + end + " of the transaction journal", e);
+            }
+        }
+
+        private SalesSummary summarizeRange() throws IOException {
+            SalesSummary summary = new SalesSummary(zone);
+            // The last record starting in the range may run past its end, and finding the first
+            // record checks the one after it too
+            long mapEnd = Math.min(fileSize, end + 2L * (TransactionRecord.FRAME_OVERHEAD + TransactionRecord.MAX_PAYLOAD_BYTES));
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, mapEnd - start);
+            int limit = (int) (end - start);
+            // Past this a record's successor may not be mapped, the next range resynchronises there instead
+            int resyncLimit = (int) Math.min(buffer.limit(), (long) limit + TransactionRecord.FRAME_OVERHEAD + TransactionRecord.MAX_PAYLOAD_BYTES);
+
+            int position = start == 0 ? 0 : findRecordStart(buffer, 0, limit);
+            while (position >= 0 && position < limit) {
+                int length = TransactionRecord.validFrameLength(buffer, position);
+                if (length < 0) {
+                    position = skipDamaged(buffer, position, resyncLimit, summary);
+                    continue;
+                }
+                byte[] body = new byte[length];
+                buffer.get(position + 4, body);
+                summary.add(TransactionRecord.decode(body));
+                position += length + TransactionRecord.FRAME_OVERHEAD;
+            }
+            // The next range skips to its first valid record without counting, so damage starting
+            // where this range's last record ends is counted here
+            if (position >= limit && start + position < fileSize && TransactionRecord.validFrameLength(buffer, position) < 0) {
+                skipDamaged(buffer, position, resyncLimit, summary);
+            }
+            return summary;
+        }
+
+        // Counts the bytes from a damaged record to the next valid one, which may start in the next
+        // range, and returns that record's offset or -1 if none follows within reach
+        private int skipDamaged(MappedByteBuffer buffer, int position, int resyncLimit, SalesSummary summary) {
+            int next = findRecordStart(buffer, position + 1, resyncLimit);
+            if (next >= 0 || start + resyncLimit < fileSize) {
+                summary.addSkippedBytes((next < 0 ? resyncLimit : next) - position);
+            } // Otherwise a torn record at the end of the journal, or one still being written
+            return next;
+        }
+
+        // First offset from..limit where a valid record starts and is followed by another valid record or the end of the file
+        private int findRecordStart(MappedByteBuffer buffer, int from, int limit) {
+            for (int position = from; position < limit; position++) {
+                int length = TransactionRecord.validFrameLength(buffer, position);
+                if (length < 0) {
+                    continue;
+                }
+                int next = position + length + TransactionRecord.FRAME_OVERHEAD;
+                if (start + next == fileSize || TransactionRecord.validFrameLength(buffer, next) >= 0) {
+                    return position;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // Prints the sales report for transaction_journal.dat or the journal given as the first argument
+    public static void main(String[] args) throws IOException {
+        File journal = new File(args.length > 0 ? args[0] : TransactionJournal.FILE_PATH);
+        long started = System.nanoTime();
+        SalesSummary summary = new SalesReportEngine().summarize(journal);
+        System.out.print(summary.format(10));
+        System.out.printf("%nSummarised %s in %d ms%n", journal, (System.nanoTime() - started) / 1_000_000);
+    }
+}
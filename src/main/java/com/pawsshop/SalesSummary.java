@@ -0,0 +1,144 @@
+package com.pawsshop;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+// Sales figures aggregated from transaction journal records. Partial summaries built for
+// separate chunks of the journal are combined with merge(). Memory depends on the number
+// of days, SKUs, categories and cashiers, not on the number of transactions.
+public class SalesSummary {
+    private final ZoneId zone;
+    private long transactions;
+    private long units;
+    private long revenueCents;
+    private long skippedBytes; // Damaged journal records left out of the figures
+    private final Map<Long, Long> revenueByDay = new TreeMap<>(); // Epoch day -> cents
+    private final Map<SkuKey, long[]> salesBySku = new HashMap<>(); // {units, cents}
+    private final Map<String, Long> revenueByCategory = new TreeMap<>();
+    private final Map<String, long[]> salesByCashier = new TreeMap<>(); // {transactions, cents}
+
+    public SalesSummary(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    public void add(TransactionRecord record) {
+        long recordCents = 0;
+        for (TransactionRecord.Line line : record.getLines()) {
+            long lineCents = line.getUnitPriceCents() * line.getQuantity();
+            recordCents += lineCents;
+            units += line.getQuantity();
+
+            long[] sku = salesBySku.computeIfAbsent(new SkuKey(line.getName(), line.getCategory()), k -> new long[2]);
+            sku[0] += line.getQuantity();
+            sku[1] += lineCents;
+            revenueByCategory.merge(line.getCategory(), lineCents, Long::sum);
+        }
+
+        long day = LocalDate.ofInstant(Instant.ofEpochMilli(record.getEpochMillis()), zone).toEpochDay();
+        revenueByDay.merge(day, recordCents, Long::sum);
+        long[] cashier = salesByCashier.computeIfAbsent(record.getCashier(), k -> new long[2]);
+        cashier[0]++;
+        cashier[1] += recordCents;
+
+        transactions++;
+        revenueCents += recordCents;
+    }
+
+    void addSkippedBytes(long bytes) {
+        skippedBytes += bytes;
+    }
+
+    // Folds another partial summary into this one
+    public SalesSummary merge(SalesSummary other) {
+        transactions += other.transactions;
+        units += other.units;
+        revenueCents += other.revenueCents;
+        skippedBytes += other.skippedBytes;
+        other.revenueByDay.forEach((day, cents) -> revenueByDay.merge(day, cents, Long::sum));
+        other.revenueByCategory.forEach((category, cents) -> revenueByCategory.merge(category, cents, Long::sum));
+        other.salesBySku.forEach((sku, totals) -> addTotals(salesBySku, sku, totals));
+        other.salesByCashier.forEach((cashier, totals) -> addTotals(salesByCashier, cashier, totals));
+        return this;
+    }
+
+    public long getTransactions() {
+        return transactions;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public long getRevenueCents() {
+        return revenueCents;
+    }
+
+    public long getSkippedBytes() {
+        return skippedBytes;
+    }
+
+    public Map<LocalDate, Long> getRevenueByDay() {
+        Map<LocalDate, Long> byDate = new LinkedHashMap<>();
+        revenueByDay.forEach((day, cents) -> byDate.put(LocalDate.ofEpochDay(day), cents));
+        return byDate;
+    }
+
+    public Map<String, Long> getRevenueByCategory() {
+        return Collections.unmodifiableMap(revenueByCategory);
+    }
+
+    // The n best selling SKUs by revenue, highest first
+    public List<Map.Entry<SkuKey, long[]>> getTopSkus(int n) {
+        PriorityQueue<Map.Entry<SkuKey, long[]>> top = new PriorityQueue<>(Comparator.comparingLong(entry -> entry.getValue()[1]));
+        for (Map.Entry<SkuKey, long[]> entry : salesBySku.entrySet()) {
+            top.add(entry);
+            if (top.size() > n) {
+                top.poll();
+            }
+        }
+        List<Map.Entry<SkuKey, long[]>> result = new ArrayList<>(top);
+        result.sort(Comparator.comparingLong((Map.Entry<SkuKey, long[]> entry) -> entry.getValue()[1]).reversed());
+        return result;
+    }
+
+    // Cashier -> {transactions, revenue in cents}
+    public Map<String, long[]> getSalesByCashier() {
+        return Collections.unmodifiableMap(salesByCashier);
+    }
+
+    // Plain text report for the dashboard and the command line
+    public String format(int topSkuCount) {
+        StringBuilder report = new StringBuilder();
+        report.append("Transactions: ").append(transactions)
+                .append("   Units sold: ").append(units)
+                .append("   Revenue: ").append(Money.formatWithSymbol(revenueCents)).append("\n");
+        if (skippedBytes > 0) {
+            report.append("Skipped ").append(skippedBytes).append(" bytes of damaged journal records, their sales are not included\n");
+        }
+        report.append('\n');
+
+        report.append("Daily revenue\n");
+        getRevenueByDay().forEach((date, cents) -> report.append(String.format("  %s  %12s%n", date, Money.formatWithSymbol(cents))));
+
+        report.append("\nTop ").append(topSkuCount).append(" SKUs\n");
+        for (Map.Entry<SkuKey, long[]> entry : getTopSkus(topSkuCount)) {
+            report.append(String.format("  %-40s %8d units %12s%n", entry.getKey(), entry.getValue()[0], Money.formatWithSymbol(entry.getValue()[1])));
+        }
+
+        report.append("\nRevenue by category\n");
+        revenueByCategory.forEach((category, cents) -> report.append(String.format("  %-25s %12s%n", category, Money.formatWithSymbol(cents))));
+
+        report.append("\nSales per cashier\n");
+        salesByCashier.forEach((cashier, totals) -> report.append(String.format("  %-25s %8d sales %12s%n", cashier, totals[0], Money.formatWithSymbol(totals[1]))));
+        return report.toString();
+    }
+
+    private static <K> void addTotals(Map<K, long[]> target, K key, long[] totals) {
+        long[] existing = target.computeIfAbsent(key, k -> new long[totals.length]);
+        for (int i = 0; i < totals.length; i++) {
+            existing[i] += totals[i];
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.pawsshop;
+
+import javax.swing.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Runs searches off the Swing event thread. A request waits for a short debounce window,
+// a newer request cancels the one still waiting or running, and only the result of the
+// latest request is handed back to the listener on the event thread.
+public class SearchPipeline<R> {
+    private final long debounceMillis;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-pipeline");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong latestRequest = new AtomicLong();
+    private ScheduledFuture<?> pending;
+
+    public SearchPipeline(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+    }
+
+    // Schedules the query and drops whatever was submitted before it. Cheap enough to call on every keystroke.
+    public synchronized void submit(Callable<R> query, Consumer<R> onResult) {
+        long requestId = latestRequest.incrementAndGet();
+        if (pending != null) {
+            pending.cancel(true); // Interrupts a query that is already running
+        }
+        pending = executor.schedule(() -> run(requestId, query, onResult), debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        latestRequest.incrementAndGet(); // Nothing still in flight gets published
+        executor.shutdownNow();
+    }
+
+    private void run(long requestId, Callable<R> query, Consumer<R> onResult) {
+        if (requestId != latestRequest.get()) {
+            return;
+        }
+        R result;
+        try {
+            result = query.call();
+        } catch (CancellationException | InterruptedException e) {
+            return; // Superseded by a newer request
+        } catch (Exception e) {
+            e.printStackTrace();
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            // A newer request may have arrived while this result was on its way to the event thread
+            if (requestId == latestRequest.get()) {
+                onResult.accept(result);
+            }
+        });
+    }
+}
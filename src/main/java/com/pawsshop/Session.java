@@ -0,0 +1,23 @@
+package com.pawsshop;
+
+// The user who is currently logged in to the application
+public final class Session {
+    private static volatile String username = "";
+    private static volatile String role = "";
+
+    private Session() {
+    }
+
+    public static void start(String username, String role) {
+        Session.username = username;
+        Session.role = role;
+    }
+
+    public static String getUsername() {
+        return username;
+    }
+
+    public static String getRole() {
+        return role;
+    }
+}
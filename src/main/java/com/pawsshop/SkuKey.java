@@ -0,0 +1,50 @@
+package com.pawsshop;
+
+import java.util.Objects;
+
+// Primary key of a product in the catalog: the same name may exist in several categories
+public final class SkuKey {
+    private final String name;
+    private final String category;
+    private final int hash;
+
+    public SkuKey(String name, String category) {
+        this.name = name;
+        this.category = category;
+        this.hash = 31 * name.hashCode() + category.hashCode();
+    }
+
+    public static SkuKey of(Product product) {
+        return new SkuKey(product.getName(), product.getCategory());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SkuKey)) {
+            return false;
+        }
+        SkuKey other = (SkuKey) o;
+        return hash == other.hash && name.equals(other.name) && category.equals(other.category);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + category + ")";
+    }
+}
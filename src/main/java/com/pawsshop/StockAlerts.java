@@ -0,0 +1,200 @@
+package com.pawsshop;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Low-stock alerting for one catalog. Every SKU has a reorder threshold (its own or the shop-wide
+// default), and only the SKUs at or below it are kept, in a tree ordered by days of cover.
+// A sale costs one comparison for a SKU that is well stocked, so nothing is ever rescanned, and
+// the most urgent SKUs are simply the first entries of the tree.
+//
+// Days of cover use a sales rate that decays with a one-week time constant. Each sale adds
+// exp(age / week) to the product's score ("forward decay"), so stock / score orders SKUs by days of
+// cover at any moment without re-sorting as time passes.
+//
+// Per-SKU thresholds are appended to reorder_thresholds.txt (name,category,threshold, last one wins).
+public class StockAlerts {
+    public static final int DEFAULT_THRESHOLD = Integer.getInteger("paws.reorder.defaultThreshold", 5);
+    private static final double DECAY_MILLIS = 7 * 24 * 60 * 60 * 1000.0;
+    private static final double MILLIS_PER_DAY = 24 * 60 * 60 * 1000.0;
+
+    // Position of a low-stock SKU in the tree, with the values it was sorted by
+    private static class Entry {
+        private final Product product;
+        private final double coverKey;
+        private final int stock;
+
+        Entry(Product product, double coverKey, int stock) {
+            this.product = product;
+            this.coverKey = coverKey;
+            this.stock = stock;
+        }
+    }
+
+    private static final Comparator<Entry> MOST_URGENT_FIRST = Comparator
+            .comparingDouble((Entry entry) -> entry.coverKey)
+            .thenComparingInt(entry -> entry.stock) // SKUs without recent sales: lowest stock first
+            .thenComparingInt(entry -> entry.product.getId());
+
+    private final File thresholdFile;
+    private final long epochMillis = System.currentTimeMillis();
+    private final TreeSet<Entry> lowStock = new TreeSet<>(MOST_URGENT_FIRST);
+    private final Map<Product, Entry> entries = new ConcurrentHashMap<>(); // Low-stock SKUs, read without locking
+    private final List<Consumer<Product>> listeners = new CopyOnWriteArrayList<>();
+
+    public StockAlerts(File thresholdFile) {
+        this.thresholdFile = thresholdFile;
+    }
+
+    // Called by the catalog after a sale has been committed
+    void onSale(Product product, int quantity) {
+        product.addSalesScore(quantity * Math.exp((System.currentTimeMillis() - epochMillis) / DECAY_MILLIS));
+        onStockChanged(product);
+    }
+
+    // Called by the catalog whenever the stock of a product was added, restocked or replaced
+    void onStockChanged(Product product) {
+        boolean low = product.getStockQuantity() <= getThreshold(product);
+        if (!low && !entries.containsKey(product)) {
+            return; // Well stocked before and after, the common case
+        }
+
+        boolean crossed;
+        synchronized (this) {
+            Entry previous = entries.remove(product);
+            if (previous != null) {
+                lowStock.remove(previous);
+            }
+            // Read again under the lock, so the last update of a SKU always leaves the right entry behind
+            low = product.getStockQuantity() <= getThreshold(product);
+            if (low) {
+                Entry entry = new Entry(product, coverKey(product), product.getStockQuantity());
+                lowStock.add(entry);
+                entries.put(product, entry);
+            }
+            crossed = low && previous == null;
+        }
+        if (crossed) {
+            for (Consumer<Product> listener : listeners) {
+                listener.accept(product);
+            }
+        }
+    }
+
+    synchronized void clear() {
+        lowStock.clear();
+        entries.clear();
+    }
+
+    public int getThreshold(Product product) {
+        int threshold = product.getReorderThreshold();
+        return threshold == Product.DEFAULT_REORDER_THRESHOLD ? DEFAULT_THRESHOLD : threshold;
+    }
+
+    // Sets the product's own reorder threshold and records it in reorder_thresholds.txt
+    public void setThreshold(Product product, int threshold) throws IOException {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Reorder threshold must not be negative");
+        }
+        String record = product.getName() + "," + product.getCategory() + "," + threshold + "\n";
+        ByteBuffer buffer = ByteBuffer.wrap(record.getBytes(StandardCharsets.UTF_8));
+        synchronized (this) {
+            try (FileChannel channel = FileChannel.open(thresholdFile.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        }
+        product.setReorderThreshold(threshold);
+        onStockChanged(product);
+    }
+
+    // Applies the thresholds saved in reorder_thresholds.txt, looking products up through the catalog
+    void loadThresholds(ProductCatalog catalog) throws IOException {
+        if (!thresholdFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(thresholdFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int thresholdStart = line.lastIndexOf(',');
+                int categoryStart = thresholdStart > 0 ? line.lastIndexOf(',', thresholdStart - 1) : -1;
+                if (categoryStart <= 0) {
+                    continue;
+                }
+                Product product = catalog.findProduct(line.substring(0, categoryStart), line.substring(categoryStart + 1, thresholdStart));
+                if (product == null) {
+                    continue; // Product no longer in the catalog
+                }
+                try {
+                    product.setReorderThreshold(Integer.parseInt(line.substring(thresholdStart + 1).trim()));
+                    onStockChanged(product);
+                } catch (NumberFormatException e) {
+                    System.out.println("Skipping invalid reorder threshold: " + line);
+                }
+            }
+        }
+    }
+
+    // Up to n SKUs at or below their threshold, fewest days of cover first
+    public synchronized List<Product> getMostUrgent(int n) {
+        List<Product> urgent = new ArrayList<>(Math.min(n, lowStock.size()));
+        for (Entry entry : lowStock) {
+            if (urgent.size() == n) {
+                break;
+            }
+            urgent.add(entry.product);
+        }
+        return urgent;
+    }
+
+    public synchronized int getLowStockCount() {
+        return lowStock.size();
+    }
+
+    // Days until the product runs out at its recent sales rate, or infinity if it has not sold lately
+    public double getDaysOfCover(Product product) {
+        if (product.getStockQuantity() <= 0) {
+            return 0;
+        }
+        double score = product.getSalesScore();
+        if (score <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double unitsPerDay = score * Math.exp(-(System.currentTimeMillis() - epochMillis) / DECAY_MILLIS) * MILLIS_PER_DAY / DECAY_MILLIS;
+        return product.getStockQuantity() / unitsPerDay;
+    }
+
+    // The listener is called once each time a product drops to or below its threshold,
+    // on the thread that changed the stock
+    public void addListener(Consumer<Product> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<Product> listener) {
+        listeners.remove(listener);
+    }
+
+    // Sort key proportional to days of cover; the time factor is the same for every SKU and drops out
+    private static double coverKey(Product product) {
+        int stock = product.getStockQuantity();
+        if (stock <= 0) {
+            return 0;
+        }
+        double score = product.getSalesScore();
+        return score > 0 ? stock / score : Double.POSITIVE_INFINITY;
+    }
+}
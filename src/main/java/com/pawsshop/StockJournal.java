@@ -0,0 +1,132 @@
+package com.pawsshop;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+// Append-only log of product changes made since the last catalog snapshot.
+// Every record is a complete product line (name,category,price,stock), so replaying
+// the journal is idempotent and the last record written for a SKU wins.
+public class StockJournal {
+    private final File file;
+    private final File rotatedFile; // Journal moved aside while a compaction writes the new snapshot
+    private FileChannel channel;
+    private long size;
+
+    // Receives every complete record with the journal file it came from and its byte offset there
+    public interface RecordConsumer {
+        void accept(File journalFile, long offset, String record);
+    }
+
+    public StockJournal(File file) {
+        this.file = file;
+        this.rotatedFile = new File(file.getPath() + ".old");
+        this.size = file.length();
+    }
+
+    // Appends one record per product and forces them to disk in a single write
+    public synchronized void append(Collection<Product> changedProducts) throws IOException {
+        if (changedProducts.isEmpty()) {
+            return;
+        }
+        StringBuilder records = new StringBuilder();
+        for (Product product : changedProducts) {
+            records.append(ProductCatalog.formatRecord(product)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(records.toString().getBytes(StandardCharsets.UTF_8));
+
+        long started = System.nanoTime();
+        FileChannel out = openChannel();
+        while (buffer.hasRemaining()) {
+            size += out.write(buffer);
+        }
+        out.force(false);
+        Metrics.PERSISTENCE.recordSince(started);
+    }
+
+    // Current journal size in bytes
+    public synchronized long size() {
+        return size;
+    }
+
+    // Replays the rotated journal (if a compaction did not finish) and then the current one.
+    // A torn record at the end of the current journal is cut off so new appends start on a clean line.
+    public synchronized void replay(RecordConsumer recordConsumer) throws IOException {
+        if (rotatedFile.exists()) {
+            replayFile(rotatedFile, recordConsumer);
+        }
+        if (file.exists()) {
+            long validLength = replayFile(file, recordConsumer);
+            if (validLength < file.length()) {
+                try (FileChannel truncate = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                    truncate.truncate(validLength);
+                }
+            }
+            size = validLength;
+        }
+    }
+
+    // Captures the snapshot contents and moves the current journal aside in one step, holding the
+    // journal lock throughout. An append therefore lands either before the capture, so the snapshot
+    // includes its stock, or in the new journal; never in the rotated journal after the capture.
+    public synchronized <T> T rotate(Supplier<T> captureSnapshot) throws IOException {
+        T snapshot = captureSnapshot.get();
+        closeChannel();
+        if (!file.exists()) {
+            return snapshot;
+        }
+        if (rotatedFile.exists()) {
+            // A previous compaction never finished, keep its records in front of ours
+            Files.write(rotatedFile.toPath(), Files.readAllBytes(file.toPath()), StandardOpenOption.APPEND);
+            Files.delete(file.toPath());
+        } else {
+            Files.move(file.toPath(), rotatedFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        size = 0;
+        return snapshot;
+    }
+
+    // Drops the rotated journal once the snapshot that covers it is safely on disk
+    public synchronized void deleteRotated() throws IOException {
+        Files.deleteIfExists(rotatedFile.toPath());
+    }
+
+    public synchronized void close() throws IOException {
+        closeChannel();
+    }
+
+    private long replayFile(File journalFile, RecordConsumer recordConsumer) throws IOException {
+        byte[] bytes = Files.readAllBytes(journalFile.toPath());
+        int lineStart = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                if (i > lineStart) {
+                    recordConsumer.accept(journalFile, lineStart, new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                }
+                lineStart = i + 1;
+            }
+        }
+        return lineStart; // Everything after the last newline is an incomplete record
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.pawsshop;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+// All-or-nothing stock reservation for a whole cart. Each SKU is decremented with a
+// compare-and-set on its own counter, so tills selling different products never wait on
+// each other. If any SKU runs short, the SKUs already taken are put back.
+public final class StockLedger {
+
+    private StockLedger() {
+    }
+
+    public static CheckoutResult reserve(Map<Product, Integer> quantities) {
+        // Fixed order, so two tills racing for the same products fail the same way
+        List<Map.Entry<Product, Integer>> entries = new ArrayList<>(quantities.entrySet());
+        entries.sort(Comparator.comparingInt(entry -> entry.getKey().getId()));
+
+        for (int i = 0; i < entries.size(); i++) {
+            Product product = entries.get(i).getKey();
+            int quantity = entries.get(i).getValue();
+            if (!product.tryReduceStock(quantity)) {
+                int available = product.getStockQuantity();
+                for (int j = 0; j < i; j++) {
+                    entries.get(j).getKey().addStock(entries.get(j).getValue());
+                }
+                return CheckoutResult.insufficientStock(product, quantity, available);
+            }
+        }
+        return CheckoutResult.success();
+    }
+
+    // Puts reserved stock back, e.g. when the sale could not be recorded
+    public static void release(Map<Product, Integer> quantities) {
+        for (Map.Entry<Product, Integer> entry : quantities.entrySet()) {
+            entry.getKey().addStock(entry.getValue());
+        }
+    }
+}
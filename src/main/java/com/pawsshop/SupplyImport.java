@@ -0,0 +1,184 @@
+package com.pawsshop;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+// Bulk import of a supplier delivery file with one name,category,price,quantity line per product
+// (an optional header line is skipped). The file is streamed and validated line by line, the valid
+// lines are sorted by name and category, repeated products are combined, and the whole delivery
+// is merged into the catalog with one pass and recorded with one journal append.
+// Lines that fail validation are skipped and listed in the report with their line numbers.
+public class SupplyImport {
+
+    // A delivery line that was not imported
+    public static class LineError {
+        private final int lineNumber;
+        private final String text;
+        private final String reason;
+
+        LineError(int lineNumber, String text, String reason) {
+            this.lineNumber = lineNumber;
+            this.text = text;
+            this.reason = reason;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + reason + ": " + text;
+        }
+    }
+
+    public static class Report {
+        private final File file;
+        private final int linesRead;
+        private final int productsAdded;
+        private final int productsRestocked;
+        private final long unitsAdded;
+        private final List<LineError> errors;
+
+        Report(File file, int linesRead, int productsAdded, int productsRestocked, long unitsAdded, List<LineError> errors) {
+            this.file = file;
+            this.linesRead = linesRead;
+            this.productsAdded = productsAdded;
+            this.productsRestocked = productsRestocked;
+            this.unitsAdded = unitsAdded;
+            this.errors = errors;
+        }
+
+        public int getLinesRead() {
+            return linesRead;
+        }
+
+        public int getProductsAdded() {
+            return productsAdded;
+        }
+
+        public int getProductsRestocked() {
+            return productsRestocked;
+        }
+
+        public long getUnitsAdded() {
+            return unitsAdded;
+        }
+
+        public List<LineError> getErrors() {
+            return errors;
+        }
+
+        public String format() {
+            StringBuilder report = new StringBuilder();
+            report.append("Imported ").append(file.getName()).append('\n');
+            report.append(String.format("Lines read:          %,d%n", linesRead));
+            report.append(String.format("New products:        %,d%n", productsAdded));
+            report.append(String.format("Restocked products:  %,d%n", productsRestocked));
+            report.append(String.format("Units added:         %,d%n", unitsAdded));
+            report.append(String.format("Lines skipped:       %,d%n", errors.size()));
+            for (LineError error : errors) {
+                report.append("  ").append(error).append('\n');
+            }
+            return report.toString();
+        }
+    }
+
+    // Delivery lines in name then category order, the same name order the catalog's merge-join walks
+    private static final Comparator<Product> NAME_THEN_CATEGORY = (first, second) -> {
+        int result = ProductSortIndex.compareNames(first.getName(), second.getName());
+        return result != 0 ? result : ProductSortIndex.compareNames(first.getCategory(), second.getCategory());
+    };
+
+    private final ProductCatalog catalog;
+
+    public SupplyImport(ProductCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    public Report importFile(File file) throws IOException {
+        List<Product> rows = new ArrayList<>();
+        List<LineError> errors = new ArrayList<>();
+        int lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && line.trim().toLowerCase().startsWith("name,"))) {
+                    continue;
+                }
+                try {
+                    rows.add(parseLine(line));
+                } catch (IllegalArgumentException e) {
+                    errors.add(new LineError(lineNumber, line.trim(), e.getMessage()));
+                }
+            }
+        }
+
+        // Stable sort, so of several lines for one product the last one's price is kept
+        rows.sort(NAME_THEN_CATEGORY);
+        List<Product> delivery = new ArrayList<>(rows.size());
+        long unitsAdded = 0;
+        for (Product row : rows) {
+            Product previous = delivery.isEmpty() ? null : delivery.get(delivery.size() - 1);
+            if (previous != null && previous.getName().equals(row.getName()) && previous.getCategoryId() == row.getCategoryId()) {
+                if (previous.getStockQuantity() > Integer.MAX_VALUE - row.getStockQuantity()) {
+                    throw new IOException("Quantity of " + row.getName() + " in " + file.getName() + " is too large");
+                }
+                previous.setPriceCents(row.getPriceCents());
+                previous.addStock(row.getStockQuantity());
+            } else {
+                delivery.add(row);
+            }
+            unitsAdded += row.getStockQuantity();
+        }
+
+        int productsAdded = delivery.isEmpty() ? 0 : catalog.restockAll(delivery);
+        return new Report(file, lineNumber, productsAdded, delivery.size() - productsAdded, unitsAdded,
+                Collections.unmodifiableList(errors));
+    }
+
+    // Checks one line with the same rules as a single restock, throws with the reason if it is invalid
+    private static Product parseLine(String line) {
+        int quantityStart = line.lastIndexOf(',');
+        int priceStart = quantityStart > 0 ? line.lastIndexOf(',', quantityStart - 1) : -1;
+        int categoryStart = priceStart > 0 ? line.lastIndexOf(',', priceStart - 1) : -1;
+        if (categoryStart <= 0) {
+            throw new IllegalArgumentException("expected name,category,price,quantity");
+        }
+        String name = line.substring(0, categoryStart).trim();
+        String category = line.substring(categoryStart + 1, priceStart).trim();
+        if (name.isEmpty() || category.isEmpty()) {
+            throw new IllegalArgumentException("name and category must not be empty");
+        }
+
+        long priceCents;
+        try {
+            priceCents = Money.parse(line.substring(priceStart + 1, quantityStart));
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("invalid price");
+        }
+        int quantity;
+        try {
+            quantity = Integer.parseInt(line.substring(quantityStart + 1).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid quantity");
+        }
+        if (priceCents < 0 || quantity <= 0) {
+            throw new IllegalArgumentException("price must not be negative and quantity must be positive");
+        }
+        return new Product(name, category, priceCents, quantity);
+    }
+}
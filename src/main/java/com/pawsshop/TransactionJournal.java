@@ -0,0 +1,176 @@
+package com.pawsshop;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Append-only journal of completed sales (transaction_journal.dat).
+// Tills hand their records to a single writer thread, which collects every record that arrives
+// within the commit window into one batch, writes the batch with one write and one fsync, and
+// then completes all of their futures together (group commit).
+// Each record is framed by its length and a CRC. On open, a record torn by a crash at the end of
+// the file is cut off, so new records never follow a partial one.
+public class TransactionJournal {
+    static final String FILE_PATH = "transaction_journal.dat";
+
+    // How long the writer waits for more records after the first one of a batch. 0 flushes as soon as possible.
+    private static final long COMMIT_WINDOW_MILLIS = Long.getLong("paws.txjournal.commitWindowMillis", 2);
+    private static final int MAX_BATCH_RECORDS = 1024;
+
+    private static TransactionJournal instance;
+
+    private static class PendingRecord {
+        private final byte[] bytes;
+        private final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        PendingRecord(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private final File file;
+    private final long commitWindowNanos;
+    private final BlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong nextTransactionId = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final FileChannel channel;
+
+    public TransactionJournal(File file, long commitWindowMillis) throws IOException {
+        this.file = file;
+        this.commitWindowNanos = TimeUnit.MILLISECONDS.toNanos(commitWindowMillis);
+        if (file.exists()) {
+            long validLength = validLength(file);
+            if (validLength < file.length()) {
+                try (FileChannel truncate = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                    truncate.truncate(validLength);
+                }
+            }
+        }
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        Thread writer = new Thread(this::writeLoop, "transaction-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public static synchronized TransactionJournal getInstance() throws IOException {
+        if (instance == null) {
+            instance = new TransactionJournal(new File(FILE_PATH), COMMIT_WINDOW_MILLIS);
+        }
+        return instance;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    // Unique id for the next sale
+    public long nextTransactionId() {
+        return nextTransactionId.incrementAndGet();
+    }
+
+    // Queues the record and returns a future that completes once it is on disk.
+    // The record is encoded on the calling thread, so the writer thread only copies bytes.
+    public CompletableFuture<Void> append(TransactionRecord record) {
+        PendingRecord pending = new PendingRecord(record.encode());
+        queue.add(pending);
+        return pending.durable;
+    }
+
+    private void writeLoop() {
+        List<PendingRecord> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+
+                // Give other tills the commit window to join this batch
+                long deadline = System.nanoTime() + commitWindowNanos;
+                while (batch.size() < MAX_BATCH_RECORDS) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingRecord next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                failBatch(batch, e);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingRecord> batch) {
+        int size = 0;
+        for (PendingRecord pending : batch) {
+            size += pending.bytes.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (PendingRecord pending : batch) {
+            buffer.put(pending.bytes);
+        }
+        buffer.flip();
+
+        try {
+            long started = System.nanoTime();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            Metrics.PERSISTENCE.recordSince(started);
+        } catch (IOException e) {
+            failBatch(batch, e);
+            return;
+        }
+        for (PendingRecord pending : batch) {
+            pending.durable.complete(null);
+        }
+    }
+
+    // Offset just past the last complete record. Only the tail is read, so opening does not depend
+    // on the length of the history: a crash tears at most the record being written, which leaves
+    // the start of the last complete record within two maximum frames of the end. Damage further
+    // back is left for the sales report to skip.
+    private static long validLength(File file) throws IOException {
+        long size = file.length();
+        long tailStart = Math.max(0, size - 2L * (TransactionRecord.FRAME_OVERHEAD + TransactionRecord.MAX_PAYLOAD_BYTES));
+        ByteBuffer tail = ByteBuffer.allocate((int) (size - tailStart));
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (tail.hasRemaining()) {
+                if (in.read(tail, tailStart + tail.position()) < 0) {
+                    break;
+                }
+            }
+        }
+        tail.flip();
+
+        // Walking back from the end, the first record that checks out is the last one
+        for (int position = tail.limit() - TransactionRecord.FRAME_OVERHEAD - TransactionRecord.MIN_PAYLOAD_BYTES; position >= 0; position--) {
+            int length = TransactionRecord.validFrameLength(tail, position);
+            if (length >= 0) {
+                return tailStart + position + length + TransactionRecord.FRAME_OVERHEAD;
+            }
+        }
+        // Nothing intact in the tail. A short file is all torn; a long one is kept as it is
+        // rather than guessing how much of it to cut.
+        return tailStart == 0 ? 0 : size;
+    }
+
+    private static void failBatch(List<PendingRecord> batch, Exception cause) {
+        for (PendingRecord pending : batch) {
+            pending.durable.completeExceptionally(cause);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.pawsshop;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// One completed sale as stored in the transaction journal.
+//
+// On disk a record is: int payload length, payload, int CRC32 of the payload.
+// Payload: long transaction id, long epoch millis, UTF cashier, int line count,
+// then per line: UTF product name, UTF category, int quantity, long unit price in cents.
+public class TransactionRecord {
+
+    public static class Line {
+        private final String name;
+        private final String category;
+        private final int quantity;
+        private final long unitPriceCents;
+
+        public Line(String name, String category, int quantity, long unitPriceCents) {
+            this.name = name;
+            this.category = category;
+            this.quantity = quantity;
+            this.unitPriceCents = unitPriceCents;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public long getUnitPriceCents() {
+            return unitPriceCents;
+        }
+    }
+
+    // Bytes around the payload: length prefix and CRC
+    public static final int FRAME_OVERHEAD = 8;
+    // Bounds on the payload length that readers use to tell a record from damaged bytes
+    static final int MIN_PAYLOAD_BYTES = 8 + 8 + 2 + 4; // Id, timestamp, empty cashier, line count
+    static final int MAX_PAYLOAD_BYTES = 1024 * 1024;
+
+    private final long transactionId;
+    private final long epochMillis;
+    private final String cashier;
+    private final List<Line> lines;
+
+    public TransactionRecord(long transactionId, long epochMillis, String cashier, List<Line> lines) {
+        this.transactionId = transactionId;
+        this.epochMillis = epochMillis;
+        this.cashier = cashier;
+        this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+    }
+
+    // Builds the record for a cart that has just been sold
+    public static TransactionRecord fromCart(long transactionId, long epochMillis, String cashier, Cart cart) {
+        List<Line> lines = new ArrayList<>();
+        for (Cart.Line cartLine : cart.getLines()) {
+            Product product = cartLine.getProduct();
+            lines.add(new Line(product.getName(), product.getCategory(), cartLine.getQuantity(),
+                    cartLine.getUnitPriceCents()));
+        }
+        return new TransactionRecord(transactionId, epochMillis, cashier, lines);
+    }
+
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    public String getCashier() {
+        return cashier;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    public long getTotalCents() {
+        long total = 0;
+        for (Line line : lines) {
+            total += line.unitPriceCents * line.quantity;
+        }
+        return total;
+    }
+
+    // Encodes the record with its length prefix and CRC, ready to be appended to the journal
+    public byte[] encode() {
+        try {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64 + lines.size() * 48);
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+            payload.writeLong(transactionId);
+            payload.writeLong(epochMillis);
+            payload.writeUTF(cashier);
+            payload.writeInt(lines.size());
+            for (Line line : lines) {
+                payload.writeUTF(line.name);
+                payload.writeUTF(line.category);
+                payload.writeInt(line.quantity);
+                payload.writeLong(line.unitPriceCents);
+            }
+
+            byte[] body = payloadBytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            return ByteBuffer.allocate(body.length + FRAME_OVERHEAD)
+                    .putInt(body.length)
+                    .put(body)
+                    .putInt((int) crc.getValue())
+                    .array();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Cannot happen when writing to memory
+        }
+    }
+
+    // Decodes the payload of one record (without length prefix and CRC)
+    public static TransactionRecord decode(byte[] body) throws IOException {
+        DataInputStream payload = new DataInputStream(new ByteArrayInputStream(body));
+        long transactionId = payload.readLong();
+        long epochMillis = payload.readLong();
+        String cashier = payload.readUTF();
+        int lineCount = payload.readInt();
+        List<Line> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(new Line(payload.readUTF(), payload.readUTF(), payload.readInt(), payload.readLong()));
+        }
+        return new TransactionRecord(transactionId, epochMillis, cashier, lines);
+    }
+
+    public static boolean checksumMatches(byte[] body, int expectedCrc) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue() == expectedCrc;
+    }
+
+    // Payload length of the record at this offset, or -1 if no complete record with a matching CRC starts here
+    static int validFrameLength(ByteBuffer buffer, int position) {
+        if (position + 4 > buffer.limit()) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length < MIN_PAYLOAD_BYTES || length > MAX_PAYLOAD_BYTES
+                || (long) position + length + FRAME_OVERHEAD > buffer.limit()) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position + 4, length));
+        return (int) crc.getValue() == buffer.getInt(position + 4 + length) ? length : -1;
+    }
+}
@@ -1,8 +1,11 @@
+package com.pawsshop;
+
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
 import java.util.*;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class TransactionWindow extends JFrame {
     private static final Color PRIMARY_COLOR = new Color(70, 130, 180); // Steel Blue
@@ -10,15 +13,20 @@ public class TransactionWindow extends JFrame {
     private static final Color BACKGROUND_COLOR = new Color(240, 248, 255); // Alice Blue
 
     private JComboBox<String> categoryComboBox;
+    private CategoryComboBoxModel categoryModel; // Follows the categories of the catalog
     private JComboBox<String> productComboBox;
     private JTextField priceField;
     private JLabel totalLabel;
-    private DefaultListModel<String> cartModel;
-    private double totalCost = 0.0;
+    private DefaultListModel<Cart.Line> cartModel; // Mirrors the lines of the cart for display
+    private final Cart cart = new Cart();
     private JButton backButton;
-    private Map<String, List<Product>> productCatalogData; // Explicitly use java.util.List
+    private final InventoryService inventory = InventoryService.getInstance(); // Stock and sales rules shared with the HTTP API
+    private final ProductCatalog catalog = inventory.getCatalog(); // Shared catalog, loaded once at startup
     private final String role; // Role of the user
 
+    // Shows new prices and products when the product file was changed by another program
+    private final Consumer<List<Product>> catalogListener = changed -> SwingUtilities.invokeLater(() -> applyCatalogChanges(changed));
+
     public TransactionWindow(String role) {
         this.role = role; // Initialize role
         setTitle("Process Transaction");
@@ -26,9 +34,6 @@ public class TransactionWindow extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
 
-        // Load products from the file
-        loadProductData();
-
         // Main panel for the entire window
         JPanel panel = new JPanel();
         panel.setLayout(new BorderLayout(20, 20)); // Increased gap for margins
@@ -37,7 +42,7 @@ public class TransactionWindow extends JFrame {
 
         // Cart display section
         cartModel = new DefaultListModel<>();
-        JList<String> cartList = new JList<>(cartModel);
+        JList<Cart.Line> cartList = new JList<>(cartModel);
         JScrollPane cartScrollPane = new JScrollPane(cartList);
         cartScrollPane.setBorder(BorderFactory.createTitledBorder("Shopping Cart")); // Cart section with title
         cartScrollPane.setBackground(SECONDARY_COLOR); // Set background color for cart section
@@ -51,7 +56,8 @@ public class TransactionWindow extends JFrame {
         // Category selection ComboBox
         JLabel categoryLabel = new JLabel("Category:");
         categoryLabel.setForeground(PRIMARY_COLOR); // Set label color to primary color
-        categoryComboBox = new JComboBox<>(productCatalogData.keySet().toArray(new String[0]));
+        categoryModel = new CategoryComboBoxModel(catalog.getCategoryRegistry());
+        categoryComboBox = new JComboBox<>(categoryModel);
         categoryComboBox.addActionListener(e -> updateProductComboBox());
 
         // Product selection ComboBox
@@ -114,28 +120,30 @@ public class TransactionWindow extends JFrame {
 
         // Action listeners for buttons
         addItemButton.addActionListener(e -> {
-            String selectedProduct = (String) productComboBox.getSelectedItem();
-            Product product = getProductByName(selectedProduct);
+            Product product = getSelectedProduct();
 
             if (product != null) {
-                cartModel.addElement(product.getName() + " - $" + product.getPrice());
-                totalCost += product.getPrice();
-                totalLabel.setText("Total: $" + String.format("%.2f", totalCost));
+                Cart.Line line = cart.add(product, 1);
+                int lineIndex = cart.indexOf(line);
+                if (lineIndex < cartModel.size()) {
+                    cartModel.set(lineIndex, line); // Same product again, refresh its quantity
+                } else {
+                    cartModel.addElement(line);
+                }
+                updateTotalLabel();
             }
         });
 
         removeItemButton.addActionListener(e -> {
             int selectedIndex = cartList.getSelectedIndex();
             if (selectedIndex != -1) {
-                String selectedItem = cartModel.getElementAt(selectedIndex);
-                String productName = selectedItem.split(" - ")[0]; // Extract product name
-                Product product = getProductByName(productName);
-
-                if (product != null) {
-                    cartModel.removeElementAt(selectedIndex); // Remove item from cart
-                    totalCost -= product.getPrice(); // Deduct price from total
-                    totalLabel.setText("Total: $" + String.format("%.2f", totalCost)); // Update total label
+                // Remove one unit, and the whole line once its quantity reaches zero
+                if (cart.removeOne(selectedIndex)) {
+                    cartModel.removeElementAt(selectedIndex);
+                } else {
+                    cartModel.set(selectedIndex, cart.getLines().get(selectedIndex));
                 }
+                updateTotalLabel();
             } else {
                 JOptionPane.showMessageDialog(this, "Please select an item to remove!", "Error", JOptionPane.ERROR_MESSAGE);
             }
@@ -143,38 +151,31 @@ public class TransactionWindow extends JFrame {
 
         completeTransactionButton.addActionListener(e -> {
             // Check if the cart is empty before proceeding
-            if (cartModel.isEmpty()) {
+            if (cart.isEmpty()) {
                 JOptionPane.showMessageDialog(TransactionWindow.this, "Cart is empty! Please add items to complete the transaction.", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
 
             // Confirm the transaction completion
             int confirm = JOptionPane.showConfirmDialog(TransactionWindow.this,
-                    "Are you sure you want to complete the transaction? Total: $" + String.format("%.2f", totalCost),
+                    "Are you sure you want to complete the transaction? Total: " + Money.formatWithSymbol(cart.getTotalCents()),
                     "Confirm Transaction", JOptionPane.YES_NO_OPTION);
 
             if (confirm == JOptionPane.YES_OPTION) {
-                // Reduce the stock based on the cart items
-                for (int i = 0; i < cartModel.size(); i++) {
-                    String cartItem = cartModel.getElementAt(i);
-                    Product product = getProductByNameFromCart(cartItem);
-
-                    if (product != null) {
-                        product.reduceStock(1); // Reduce stock by 1 for each purchased item
-                    }
+                // Reduce the stock once per product in the cart and record it in one batch.
+                // Nothing is taken out of stock if another till sold the last units first.
+                if (!saveProductData()) {
+                    return;
                 }
 
-                // Save the updated product data to the file
-                saveProductData();
-
-                // Save the transaction history to the transaction_report.txt file
+                // Save the sale to the transaction journal
                 saveTransactionReport();
 
                 // Clear the cart and reset total cost
-                JOptionPane.showMessageDialog(TransactionWindow.this, "Transaction Completed! Total: $" + totalCost);
+                JOptionPane.showMessageDialog(TransactionWindow.this, "Transaction Completed! Total: " + Money.formatWithSymbol(cart.getTotalCents()));
                 cartModel.clear();
-                totalCost = 0.0;
-                totalLabel.setText("Total: $0.00");
+                cart.clear();
+                updateTotalLabel();
             }
         });
 
@@ -183,40 +184,37 @@ public class TransactionWindow extends JFrame {
             new DashboardWindow(role).setVisible(true); // Open the dashboard with the correct role
         });
 
+        catalog.addChangeListener(catalogListener);
+
         add(panel);
         setVisible(true);
     }
 
-    private void loadProductData() {
-        productCatalogData = new HashMap<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader("product_data.txt"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 4) {
-                    String name = parts[0];
-                    String category = parts[1];
-                    double price = Double.parseDouble(parts[2]);
-                    int stock = Integer.parseInt(parts[3]);
-
-                    Product product = new Product(name, category, price, stock);
-
-                    productCatalogData
-                            .computeIfAbsent(category, k -> new ArrayList<>())
-                            .add(product);
-                }
+    @Override
+    public void dispose() {
+        categoryModel.detach();
+        catalog.removeChangeListener(catalogListener);
+        super.dispose();
+    }
+
+    private void applyCatalogChanges(List<Product> changed) {
+        String category = (String) categoryComboBox.getSelectedItem();
+        for (Product product : changed) {
+            // New products of the selected category are added without losing the selection
+            if (product.getCategory().equals(category) && ((DefaultComboBoxModel<String>) productComboBox.getModel()).getIndexOf(product.getName()) < 0) {
+                productComboBox.addItem(product.getName());
+                productComboBox.setEnabled(true);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
+        updatePriceField();
     }
 
     private void updateProductComboBox() {
         productComboBox.removeAllItems();
         String category = (String) categoryComboBox.getSelectedItem();
-        List<Product> products = productCatalogData.get(category);
+        List<Product> products = catalog.getProductsInCategory(category);
 
-        if (products != null) {
+        if (!products.isEmpty()) {
             for (Product product : products) {
                 productComboBox.addItem(product.getName());
             }
@@ -225,92 +223,47 @@ public class TransactionWindow extends JFrame {
     }
 
     private void updatePriceField() {
-        String selectedProduct = (String) productComboBox.getSelectedItem();
-        Product product = getProductByName(selectedProduct);
+        Product product = getSelectedProduct();
 
         if (product != null) {
-            priceField.setText("$" + String.format("%.2f", product.getPrice()));
+            priceField.setText(Money.formatWithSymbol(product.getPriceCents()));
         }
     }
 
-    private Product getProductByName(String name) {
-        for (List<Product> productList : productCatalogData.values()) {
-            for (Product product : productList) {
-                if (product.getName().equals(name)) {
-                    return product;
-                }
-            }
-        }
-        return null;
+    // Looks up the product picked in the category and product combo boxes by its (name, category) key
+    private Product getSelectedProduct() {
+        String category = (String) categoryComboBox.getSelectedItem();
+        String name = (String) productComboBox.getSelectedItem();
+        return inventory.lookup(name, category);
     }
 
-    private Product getProductByNameFromCart(String cartItem) {
-        String productName = cartItem.split(" - ")[0];
-        return getProductByName(productName);
+    private void updateTotalLabel() {
+        totalLabel.setText("Total: " + Money.formatWithSymbol(cart.getTotalCents()));
     }
 
-    private void saveProductData() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("product_data.txt"))) {
-            for (List<Product> products : productCatalogData.values()) {
-                for (Product product : products) {
-                    writer.write(product.getName() + "," + product.getCategory() + "," + product.getPrice() + "," + product.getStock() + "\n");
-                }
+    private boolean saveProductData() {
+        try {
+            CheckoutResult result = inventory.sell(cart);
+            if (!result.isSuccess()) {
+                JOptionPane.showMessageDialog(this, result.getMessage(), "Insufficient Stock", JOptionPane.ERROR_MESSAGE);
+                return false;
             }
+            return true;
         } catch (IOException e) {
             e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Failed to save product data!", "Error", JOptionPane.ERROR_MESSAGE);
+            return false;
         }
     }
 
+    // Appends the sale to the transaction journal and waits until its group commit is on disk
     private void saveTransactionReport() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("transaction_report.txt", true))) { // 'true' to append
-            writer.write("Transaction Date: " + new Date() + "\n");
-            writer.write("Items Purchased:\n");
-
-            for (int i = 0; i < cartModel.size(); i++) {
-                String cartItem = cartModel.getElementAt(i);
-                writer.write(cartItem + "\n");
-            }
-
-            writer.write("Total Cost: $" + String.format("%.2f", totalCost) + "\n");
-            writer.write("-------------------------------------------------\n");
+        try {
+            String cashier = Session.getUsername().isEmpty() ? role : Session.getUsername();
+            inventory.recordSale(cart, cashier);
         } catch (IOException e) {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Failed to save transaction report!", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
-
-    // Product class
-    static class Product {
-        private final String name;
-        private final String category;
-        private final double price;
-        private int stock;
-
-        public Product(String name, String category, double price, int stock) {
-            this.name = name;
-            this.category = category;
-            this.price = price;
-            this.stock = stock;
-        }
-
-        public String getName() {
-            return name;
-        }
-
-        public String getCategory() {
-            return category;
-        }
-
-        public double getPrice() {
-            return price;
-        }
-
-        public int getStock() {
-            return stock;
-        }
-
-        public void reduceStock(int quantity) {
-            stock -= quantity;
-        }
-    }
 }
@@ -1,3 +1,5 @@
+package com.pawsshop;
+
 // Abstract class User (Abstraction)
 abstract class User {
     protected String username;
@@ -17,7 +19,7 @@ abstract class User {
         }
 
         public static boolean login(String username, String password) {
-            return "manager".equals(username) && "manager123".equals(password);
+            return "Manager".equals(UserDirectory.getInstance().authenticate(username, password));
         }
     }
 
@@ -27,6 +29,7 @@ abstract class User {
         }
 
         public static boolean login(String username, String password) {
-            return "cashier".equals(username) && "cashier123".equals(password);}
+            return "Cashier".equals(UserDirectory.getInstance().authenticate(username, password));
+        }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
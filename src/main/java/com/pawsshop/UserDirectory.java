@@ -0,0 +1,340 @@
+package com.pawsshop;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Process-wide directory of staff accounts. credentials.txt is read once into a hash index
+// keyed by username, passwords are kept as salted PBKDF2 hashes, and every new or updated
+// account is persisted by appending a single record (the last record for a username wins).
+//
+// Record format: username,role,email,iterations,salt,hash[,expired] (salt and hash in Base64).
+// "expired" marks a password that has to be changed at the next login, like the default accounts'.
+// Old username,password,role lines are still accepted; their passwords are hashed as soon as the
+// file is read and the plain text lines are replaced in one rewrite of the file.
+public class UserDirectory {
+    private static final String CREDENTIALS_FILE_PATH = "credentials.txt";
+
+    // PBKDF2 work factor for new hashes, raise it as hardware gets faster
+    private static final int ITERATIONS = Integer.getInteger("paws.auth.iterations", 120_000);
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    // Accounts the shop has always shipped with, their passwords are public
+    private static final Map<String, String> DEFAULT_PASSWORDS = Map.of("manager", "manager123", "cashier", "cashier123");
+    // Hashed against for unknown usernames, so a failed login takes as long whether the user exists or not
+    private static final byte[] DUMMY_SALT = new byte[SALT_BYTES];
+
+    private static UserDirectory instance;
+
+    private final File credentialsFile;
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
+    public static class Account {
+        private final String username;
+        private final String role;
+        private final String email;
+        private final int iterations;
+        private final byte[] salt;
+        private final byte[] hash;
+        private final String legacyPassword; // Plain text password from an old credentials line, or null
+        private final boolean passwordExpired;
+
+        private Account(String username, String role, String email, int iterations, byte[] salt, byte[] hash,
+                        String legacyPassword, boolean passwordExpired) {
+            this.username = username;
+            this.role = role;
+            this.email = email;
+            this.iterations = iterations;
+            this.salt = salt;
+            this.hash = hash;
+            this.legacyPassword = legacyPassword;
+            this.passwordExpired = passwordExpired;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public boolean isPasswordExpired() {
+            return passwordExpired;
+        }
+
+        private boolean sameRecordAs(Account other) {
+            return role.equals(other.role) && email.equals(other.email) && iterations == other.iterations
+                    && Arrays.equals(salt, other.salt) && Arrays.equals(hash, other.hash)
+                    && Objects.equals(legacyPassword, other.legacyPassword) && passwordExpired == other.passwordExpired;
+        }
+    }
+
+    public UserDirectory(File credentialsFile) {
+        this.credentialsFile = credentialsFile;
+    }
+
+    // Returns the shared directory, loading credentials.txt on first use
+    public static synchronized UserDirectory getInstance() {
+        if (instance == null) {
+            UserDirectory directory = new UserDirectory(new File(CREDENTIALS_FILE_PATH));
+            try {
+                directory.load();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            instance = directory;
+        }
+        return instance;
+    }
+
+    public synchronized void load() throws IOException {
+        accounts.clear();
+        if (!credentialsFile.exists()) {
+            // First start: create the default accounts, their passwords have to be changed at the first login
+            createAccount("manager", DEFAULT_PASSWORDS.get("manager"), "", "Manager", true);
+            createAccount("cashier", DEFAULT_PASSWORDS.get("cashier"), "", "Cashier", true);
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(credentialsFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Account account = parseRecord(line);
+                if (account != null) {
+                    accounts.put(account.username, account);
+                } else if (!line.isBlank()) {
+                    System.err.println("Skipping invalid credentials line: " + line);
+                }
+            }
+        }
+        upgradeLegacyAccounts(accounts);
+    }
+
+    public File getCredentialsFile() {
+        return credentialsFile;
+    }
+
+    // Merges a credentials.txt edited by another program: accounts whose record changed are
+    // replaced, new ones are added and accounts no longer in the file are removed.
+    // Our own appends read back as no change. Returns the number of accounts that changed.
+    public synchronized int applyExternalChanges() throws IOException {
+        if (!credentialsFile.exists()) {
+            return 0; // Deleted or being replaced, keep the accounts we have
+        }
+        Map<String, Account> records = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(credentialsFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Account account = parseRecord(line);
+                if (account != null) {
+                    records.put(account.username, account);
+                }
+            }
+        }
+        upgradeLegacyAccounts(records);
+
+        int changed = 0;
+        for (Account record : records.values()) {
+            Account current = accounts.get(record.username);
+            if (current == null || !current.sameRecordAs(record)) {
+                accounts.put(record.username, record);
+                changed++;
+            }
+        }
+        for (Iterator<String> usernames = accounts.keySet().iterator(); usernames.hasNext(); ) {
+            if (!records.containsKey(usernames.next())) {
+                usernames.remove();
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    // Returns the role of the user if the password matches, otherwise null
+    public String authenticate(String username, String password) {
+        long started = System.nanoTime();
+        String role = verify(username, password);
+        Metrics.LOGIN.recordSince(started);
+        if (role == null) {
+            Metrics.LOGINS_FAILED.increment();
+        }
+        return role;
+    }
+
+    private String verify(String username, String password) {
+        Account account = accounts.get(username);
+        if (account == null) {
+            hash(password, DUMMY_SALT, ITERATIONS);
+            return null;
+        }
+        byte[] candidate = hash(password, account.salt, account.iterations);
+        return MessageDigest.isEqual(candidate, account.hash) ? account.role : null;
+    }
+
+    public boolean exists(String username) {
+        return accounts.containsKey(username);
+    }
+
+    public Account getAccount(String username) {
+        return accounts.get(username);
+    }
+
+    // True if the user has to choose a new password before using the shop
+    public boolean isPasswordExpired(String username) {
+        Account account = accounts.get(username);
+        return account != null && account.passwordExpired;
+    }
+
+    // Replaces the password of an existing account (and clears its expiry) by appending a new record
+    public synchronized void changePassword(String username, String newPassword) throws IOException {
+        Account account = accounts.get(username);
+        if (account == null) {
+            throw new IllegalArgumentException("Unknown user: " + username);
+        }
+        Account changed = newAccount(username, account.role, account.email, newPassword, false);
+        append(changed);
+        accounts.put(username, changed);
+    }
+
+    // Creates a new account and appends it to credentials.txt in one write.
+    // Returns false without writing anything if the username is already taken.
+    public synchronized boolean createAccount(String username, String password, String email, String role) throws IOException {
+        return createAccount(username, password, email, role, false);
+    }
+
+    private synchronized boolean createAccount(String username, String password, String email, String role,
+                                               boolean passwordExpired) throws IOException {
+        if (username.isEmpty() || username.contains(",") || email.contains(",")) {
+            throw new IllegalArgumentException("Username and email must not be empty or contain commas");
+        }
+        if (accounts.containsKey(username)) {
+            return false;
+        }
+        Account account = newAccount(username, role, email, password, passwordExpired);
+        append(account);
+        accounts.put(username, account);
+        return true;
+    }
+
+    // Hashes the password of every account read from a plain text line, in place in the given map,
+    // and rewrites credentials.txt once without those lines. If the file cannot be rewritten the
+    // accounts are still hashed in memory and the next load tries again.
+    private void upgradeLegacyAccounts(Map<String, Account> records) {
+        List<Account> upgraded = new ArrayList<>();
+        for (Account record : records.values()) {
+            if (record.legacyPassword != null) {
+                // An old file may still hold a default account with its shipped password
+                boolean passwordExpired = record.legacyPassword.equals(DEFAULT_PASSWORDS.get(record.username));
+                upgraded.add(newAccount(record.username, record.role, record.email, record.legacyPassword, passwordExpired));
+            }
+        }
+        if (upgraded.isEmpty()) {
+            return;
+        }
+        for (Account account : upgraded) {
+            records.put(account.username, account);
+        }
+        try {
+            replaceLegacyRecords(upgraded);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Rewrites credentials.txt with the hashed records in place of all plain text lines, through
+    // a temporary file that is swapped in, so the passwords are gone from the file and a crash never
+    // leaves it half written
+    private void replaceLegacyRecords(List<Account> upgraded) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (String line : Files.readAllLines(credentialsFile.toPath(), StandardCharsets.UTF_8)) {
+            Account record = parseRecord(line);
+            if (record == null || record.legacyPassword == null) {
+                content.append(line).append('\n');
+            }
+        }
+        for (Account account : upgraded) {
+            content.append(formatRecord(account));
+        }
+
+        File tempFile = new File(credentialsFile.getPath() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(tempFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tempFile.toPath(), credentialsFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Account newAccount(String username, String role, String email, String password, boolean passwordExpired) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return new Account(username, role, email, ITERATIONS, salt, hash(password, salt, ITERATIONS), null, passwordExpired);
+    }
+
+    private static String formatRecord(Account account) {
+        Base64.Encoder base64 = Base64.getEncoder();
+        return account.username + "," + account.role + "," + account.email + "," + account.iterations + ","
+                + base64.encodeToString(account.salt) + "," + base64.encodeToString(account.hash)
+                + (account.passwordExpired ? ",expired" : "") + "\n";
+    }
+
+    // One record per write, forced to disk before the account becomes visible
+    private void append(Account account) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(formatRecord(account).getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(credentialsFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    private static Account parseRecord(String line) {
+        String[] parts = line.split(",", -1);
+        try {
+            if (parts.length == 6 || (parts.length == 7 && parts[6].equals("expired"))) {
+                Base64.Decoder base64 = Base64.getDecoder();
+                return new Account(parts[0], parts[1], parts[2], Integer.parseInt(parts[3]),
+                        base64.decode(parts[4]), base64.decode(parts[5]), null, parts.length == 7);
+            }
+            if (parts.length == 3) {
+                return new Account(parts[0], parts[2], "", 0, null, null, parts[1], false);
+            }
+        } catch (IllegalArgumentException e) {
+            // Bad number or Base64, treated as an invalid line below
+        }
+        return null;
+    }
+
+    private static byte[] hash(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
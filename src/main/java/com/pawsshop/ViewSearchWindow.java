@@ -0,0 +1,260 @@
+package com.pawsshop;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class ViewSearchWindow extends JFrame {
+
+    private JTable suppliesTable;
+    private JTextField searchBar;
+    private JComboBox<String> categoryFilter;
+    private CategoryComboBoxModel categoryModel;
+    private JLabel resultCountLabel;
+    private ProductTableModel tableModel;
+    private static final long SEARCH_DEBOUNCE_MILLIS = 150; // Wait for a pause in typing before searching
+    private static final int FUZZY_RESULT_LIMIT = 50; // Closest names shown when nothing contains the search text
+
+    // Shared product catalog, searched through the inventory service
+    private ProductCatalog catalog;
+    private InventoryService inventory;
+
+    // Ids of the products matching the current search are computed by the search pipeline
+    private final SearchPipeline<SearchResult> searchPipeline = new SearchPipeline<>(SEARCH_DEBOUNCE_MILLIS);
+
+    private static class SearchResult {
+        private final int[] productIds;
+        private final boolean similar; // Nothing contained the search text, these are the closest names
+
+        SearchResult(int[] productIds, boolean similar) {
+            this.productIds = productIds;
+            this.similar = similar;
+        }
+    }
+
+    // Column the results are sorted by, or null for catalog order
+    private ProductSortIndex.Column sortColumn;
+    private boolean sortAscending = true;
+
+    // Runs the search again when the product file was changed by another program
+    private final Consumer<List<Product>> catalogListener = changed -> SwingUtilities.invokeLater(this::searchProducts);
+
+    public ViewSearchWindow() {
+        setTitle("View All Pet Supplies Details");
+        setSize(900, 650);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLocationRelativeTo(null);
+        setLayout(new BorderLayout());
+        getContentPane().setBackground(new Color(230, 230, 250)); // Light background color similar to a dashboard
+
+        loadProductData();  // Attach to the shared catalog
+
+        // Table model that reads the matching products straight from the catalog
+        tableModel = new ProductTableModel(catalog);
+        suppliesTable = new JTable(tableModel);
+        suppliesTable.setFillsViewportHeight(true);
+        suppliesTable.setBackground(new Color(255, 255, 255)); // Table background white
+
+        // Clicking a column header sorts the whole search result through the catalog's sort orders
+        suppliesTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = suppliesTable.convertColumnIndexToModel(suppliesTable.columnAtPoint(e.getPoint()));
+                if (column >= 0) {
+                    sortBy(ProductTableModel.getSortColumn(column));
+                }
+            }
+        });
+
+        // Set cell spacing and padding for a more spacious look
+        suppliesTable.setRowHeight(40); // Increase row height for better readability
+        suppliesTable.setIntercellSpacing(new Dimension(10, 10)); // Increase cell spacing
+
+        // Set up search bar
+        searchBar = new JTextField(20);
+        searchBar.setPreferredSize(new Dimension(200, 30));
+        searchBar.setBackground(new Color(240, 240, 240)); // Light grey background for the search bar
+        searchBar.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) {
+                searchProducts();
+            }
+            public void removeUpdate(DocumentEvent e) {
+                searchProducts();
+            }
+            public void changedUpdate(DocumentEvent e) {
+                searchProducts();
+            }
+        });
+
+        // Categories come from the catalog, each shown with its live product count
+        CategoryRegistry categoryRegistry = catalog.getCategoryRegistry();
+        categoryModel = new CategoryComboBoxModel(categoryRegistry, "All");
+        categoryFilter = new JComboBox<>(categoryModel);
+        categoryFilter.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                String text = value == null || value.equals("All") ? String.valueOf(value)
+                        : value + " (" + categoryRegistry.getProductCount((String) value) + ")";
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        categoryFilter.setPreferredSize(new Dimension(150, 30));
+        categoryFilter.setBackground(new Color(240, 240, 240)); // Same light grey background
+        categoryFilter.addActionListener(e -> searchProducts());
+
+        // Set up buttons in each row (Edit and Delete)
+        suppliesTable.getColumn("Price").setCellRenderer(new ProductTableModel.PriceRenderer());
+        suppliesTable.getColumn("Edit").setCellRenderer(new ButtonRenderer("Edit"));
+        suppliesTable.getColumn("Edit").setCellEditor(new ButtonEditor(new JCheckBox(), "Edit"));
+
+        suppliesTable.getColumn("Delete").setCellRenderer(new ButtonRenderer("Delete"));
+        suppliesTable.getColumn("Delete").setCellEditor(new ButtonEditor(new JCheckBox(), "Delete"));
+
+        // Set up bottom panel with styling
+        JPanel bottomPanel = new JPanel();
+        bottomPanel.setBackground(new Color(240, 240, 240)); // Background color similar to the search bar
+        resultCountLabel = new JLabel();
+        bottomPanel.add(resultCountLabel);
+
+        // Back Button functionality
+        JButton backButton = new JButton("Back");
+        backButton.setBackground(new Color(70, 130, 180)); // Steel Blue background for button
+        backButton.setForeground(Color.WHITE);
+        backButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                dispose(); // Close the current window
+                new DashboardWindow("Manager").setVisible(true); // Navigate to Dashboard with "Manager" role
+            }
+        });
+        bottomPanel.add(backButton);
+
+        // Set up the layout with styling
+        JPanel topPanel = new JPanel();
+        topPanel.setBackground(new Color(230, 230, 250)); // Light background
+        topPanel.add(new JLabel("Search:"));
+        topPanel.add(searchBar);
+        topPanel.add(new JLabel("Category:"));
+        topPanel.add(categoryFilter);
+
+        // Centering the table with added margins
+        JPanel centerPanel = new JPanel();
+        centerPanel.setLayout(new BorderLayout());
+        centerPanel.setBackground(new Color(230, 230, 250)); // Light background
+        JScrollPane scrollPane = new JScrollPane(suppliesTable);
+        scrollPane.setPreferredSize(new Dimension(850, 400)); // Set the preferred size of the table
+        scrollPane.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20)); // Add margin around the table
+        centerPanel.add(scrollPane, BorderLayout.CENTER);
+
+        // Add components to the frame
+        add(topPanel, BorderLayout.NORTH);
+        add(centerPanel, BorderLayout.CENTER);
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        catalog.addChangeListener(catalogListener);
+        searchProducts(); // Initial load
+    }
+
+    private void loadProductData() {
+        catalog = ProductCatalog.getInstance();
+        if (catalog.getLoadError() != null) {
+            JOptionPane.showMessageDialog(this, "Error loading product data: " + catalog.getLoadError().getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+        inventory = InventoryService.getInstance();
+    }
+
+    // Hands the current search text and category to the search pipeline. The filtering runs in the
+    // background and only the result of the latest search is shown.
+    private void searchProducts() {
+        String searchText = searchBar.getText();
+        String selectedCategory = (String) categoryFilter.getSelectedItem();
+        ProductSortIndex.Column column = sortColumn;
+        boolean ascending = sortAscending;
+
+        searchPipeline.submit(() -> {
+            int[] productIds = inventory.search(searchText, selectedCategory);
+            boolean similar = false;
+            if (productIds.length == 0 && !searchText.isBlank()) {
+                // Probably a typo, show the closest names instead, best match first
+                productIds = inventory.fuzzySearch(searchText, selectedCategory, FUZZY_RESULT_LIMIT);
+                similar = true;
+            }
+            return new SearchResult(column == null ? productIds : catalog.sortProductIds(productIds, column, ascending), similar);
+        }, this::updateTableData);
+    }
+
+    // A second click on the same column reverses the order
+    private void sortBy(ProductSortIndex.Column column) {
+        if (column == null) {
+            return; // Edit and Delete columns
+        }
+        sortAscending = column != sortColumn || !sortAscending;
+        sortColumn = column;
+
+        // Mark the sorted column in the header
+        for (int i = 0; i < tableModel.getColumnCount(); i++) {
+            String arrow = ProductTableModel.getSortColumn(i) == sortColumn ? (sortAscending ? " \u25B2" : " \u25BC") : "";
+            suppliesTable.getColumnModel().getColumn(suppliesTable.convertColumnIndexToView(i)).setHeaderValue(tableModel.getColumnName(i) + arrow);
+        }
+        suppliesTable.getTableHeader().repaint();
+        searchProducts();
+    }
+
+    // Shows the products of the latest search, the table model fires one event for the whole result
+    private void updateTableData(SearchResult result) {
+        tableModel.setProductIds(result.productIds);
+        if (result.similar && result.productIds.length > 0) {
+            resultCountLabel.setText("No exact matches, " + result.productIds.length + " similar products");
+        } else {
+            resultCountLabel.setText(result.productIds.length + " products");
+        }
+    }
+
+    @Override
+    public void dispose() {
+        searchPipeline.shutdown();
+        catalog.removeChangeListener(catalogListener);
+        categoryModel.detach();
+        super.dispose();
+    }
+
+    // Renderer for the Edit and Delete buttons
+    class ButtonRenderer extends JButton implements TableCellRenderer {
+        public ButtonRenderer(String buttonText) {
+            setText(buttonText);
+            setBackground(new Color(70, 130, 180)); // Steel Blue background
+            setForeground(Color.WHITE);
+            setFocusable(false);
+            setPreferredSize(new Dimension(100, 30));
+        }
+
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+            setText((String) value);
+            return this;
+        }
+    }
+
+    // Button editor for the action columns (Edit, Delete)
+    class ButtonEditor extends DefaultCellEditor {
+        private String buttonText;
+
+        public ButtonEditor(JCheckBox checkBox, String buttonText) {
+            super(checkBox);
+            this.buttonText = buttonText;
+        }
+
+        public Component getTableCellEditorComponent(JTable table, Object value, boolean isSelected, int row, int column) {
+            JButton button = new JButton(buttonText);
+            button.setBackground(new Color(70, 130, 180)); // Steel Blue background
+            button.setForeground(Color.WHITE);
+            return button;
+        }
+    }
+}